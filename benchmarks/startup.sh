@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Cold start time and peak resident memory (RSS) of the packaged service in each startup mode.
+# Every run starts a new process that exits as soon as the application context is refreshed.
+#
+#   mvn -Pcds -DskipTests package           # jar, extracted jar and CDS archive
+#   mvn -Pnative,cds -DskipTests package    # same, with AOT-processed classes (adds the "aot" modes)
+#   mvn -Pnative -DskipTests native:compile # optional native image (adds the "native" mode)
+#   benchmarks/startup.sh [runs]
+#
+# Needs GNU time (/usr/bin/time) for the RSS column.
+set -euo pipefail
+
+runs=${1:-5}
+cd "$(dirname "$0")/.."
+cds_dir=target/cds
+jar=$(ls "$cds_dir"/device-service-*.jar)
+native=target/device-service
+exit_on_refresh=-Dspring.context.exit=onRefresh
+
+measure() {
+  local mode=$1
+  shift
+  local total_ms=0 max_rss=0 rss_file
+  rss_file=$(mktemp)
+  for _ in $(seq "$runs"); do
+    local start end rss
+    start=$(date +%s%N)
+    /usr/bin/time -f %M -o "$rss_file" "$@" >/dev/null 2>&1
+    end=$(date +%s%N)
+    total_ms=$(( total_ms + (end - start) / 1000000 ))
+    rss=$(tail -n 1 "$rss_file")
+    if (( rss > max_rss )); then
+      max_rss=$rss
+    fi
+  done
+  rm -f "$rss_file"
+  printf '%-22s %8d ms %8d MB\n' "$mode" $(( total_ms / runs )) $(( max_rss / 1024 ))
+}
+
+printf '%-22s %11s %11s\n' mode "avg start" "peak RSS"
+measure jvm java "$exit_on_refresh" -jar "$jar"
+measure jvm+lazy java "$exit_on_refresh" -jar "$jar" --spring.profiles.active=fast-startup
+measure cds+lazy java -XX:SharedArchiveFile="$cds_dir/application.jsa" "$exit_on_refresh" \
+  -jar "$jar" --spring.profiles.active=fast-startup
+if unzip -l "$jar" | grep -q '__BeanFactoryRegistrations'; then
+  measure aot java -Dspring.aot.enabled=true "$exit_on_refresh" -jar "$jar"
+  measure aot+cds java -Dspring.aot.enabled=true -XX:SharedArchiveFile="$cds_dir/application.jsa" \
+    "$exit_on_refresh" -jar "$jar"
+fi
+if [[ -x $native ]]; then
+  measure native "$native" "$exit_on_refresh"
+fi
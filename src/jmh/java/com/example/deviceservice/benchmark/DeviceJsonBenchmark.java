@@ -0,0 +1,72 @@
+package com.example.deviceservice.benchmark;
+
+import com.example.deviceservice.config.DeviceListHttpMessageConverter;
+import com.example.deviceservice.model.Device;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Jackson serialization of {@link Device} with the same {@link ObjectMapper}
+ * defaults Spring Boot applies to HTTP responses, and of device lists with the
+ * {@link DeviceListHttpMessageConverter} used when {@code device.json.streaming-device-lists} is set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceJsonBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final DeviceListHttpMessageConverter streamingConverter = new DeviceListHttpMessageConverter(objectMapper);
+
+    private final Device device = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
+
+    @State(Scope.Benchmark)
+    public static class DeviceList {
+        @Param({"100", "10000"})
+        private int size;
+
+        private List<Device> devices;
+
+        @Setup
+        public void createDevices() {
+            LocalDateTime now = LocalDateTime.now();
+            devices = new ArrayList<>(size);
+            for (long id = 1; id <= size; id++) {
+                devices.add(new Device(id, "Device" + id, BenchmarkData.brand(id), now.plusNanos(id * 1_000)));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeDevice() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(device);
+    }
+
+    @Benchmark
+    public byte[] serializeDeviceList(DeviceList list) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(list.devices);
+    }
+
+    @Benchmark
+    public byte[] serializeDeviceListStreaming(DeviceList list) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamingConverter.writeDevices(list.devices, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.deviceservice.benchmark;
+
+import com.example.deviceservice.DeviceManagementServiceApplication;
+import com.example.deviceservice.dto.DeviceCursorPage;
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.service.DeviceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link DeviceService} operations against an in-memory H2 database seeded with
+ * {@code rows} devices. Caching is switched off so every call reaches the repository.
+ * <p>
+ * Each combination of benchmark and table size runs in its own fork, so every fork starts from a
+ * freshly seeded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private DeviceService deviceService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DeviceManagementServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("nocache")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        deviceService = context.getBean(DeviceService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.insertDevices(jdbcTemplate, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * A device created before each invocation of {@link #deleteDevice}, so deletes do not
+     * shrink the seeded table.
+     */
+    @State(Scope.Thread)
+    public static class DeletableDevice {
+        private Long id;
+
+        @Setup(Level.Invocation)
+        public void create(DeviceServiceBenchmark benchmark) {
+            id = benchmark.deviceService.createDevice(new DeviceDto("Deletable", "BrandDelete")).getId();
+        }
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Device createDevice() {
+        return deviceService.createDevice(new DeviceDto("Created", BenchmarkData.brand(randomId())));
+    }
+
+    @Benchmark
+    public Device findDeviceById() {
+        return deviceService.findDeviceById(randomId());
+    }
+
+    @Benchmark
+    public List<Device> findDevicesByBrand() {
+        return deviceService.findDevicesByBrand(BenchmarkData.brand(randomId()));
+    }
+
+    @Benchmark
+    public Device updateDevice() {
+        long id = randomId();
+        return deviceService.updateDevice(id, new DeviceDto("Updated" + id, BenchmarkData.brand(id)), null);
+    }
+
+    @Benchmark
+    public void deleteDevice(DeletableDevice device) {
+        deviceService.deleteDevice(device.id, null);
+    }
+
+    @Benchmark
+    public List<Device> findAllDevices() {
+        return deviceService.findAllDevices();
+    }
+
+    @Benchmark
+    public List<DeviceView> findAllDeviceViews() {
+        return deviceService.findAllDeviceViews();
+    }
+
+    @Benchmark
+    public List<DeviceView> findDeviceViewsByBrand() {
+        return deviceService.findDeviceViewsByBrand(BenchmarkData.brand(randomId()));
+    }
+
+    @Benchmark
+    public DeviceCursorPage findDevicesPage() {
+        return deviceService.findDevicesPage(null, 100);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.deviceservice.benchmark;
+
+import com.example.deviceservice.DeviceManagementServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to a running application, with eager bean creation and with the {@code fast-startup} profile.
+ * Each measurement is a single start in a new JVM, so class loading and JIT warm-up are included
+ * as they are for an instance started on demand.
+ * <p>
+ * This measures startup inside the JVM only; {@code benchmarks/startup.sh} measures whole processes,
+ * including resident memory and the CDS, AOT and native image builds.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"eager", "fast-startup"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DeviceManagementServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN");
+        if ("fast-startup".equals(mode)) {
+            builder.profiles("fast-startup");
+        }
+        context = builder.run();
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.deviceservice;
 
+import com.example.deviceservice.config.DeviceRuntimeHints;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(DeviceRuntimeHints.class)
 @Slf4j
 public class DeviceManagementServiceApplication {
 	public static void main(String[] args) {
@@ -0,0 +1,24 @@
+package com.example.deviceservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the device read-through caches.
+ * The cache provider, size and TTL come from {@code spring.cache.*}; the {@code nocache}
+ * profile switches caching off entirely.
+ * <p>
+ * The caching advice is ordered outside the transaction advice so that puts and evictions
+ * only happen once the surrounding write transaction has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /** Devices by id. */
+    public static final String DEVICES = "devices";
+
+    /** Device lists by exact brand. */
+    public static final String DEVICES_BY_BRAND = "devicesByBrand";
+}
@@ -0,0 +1,175 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.model.Device;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes {@code List<Device>} response bodies straight to the response stream, as a faster
+ * alternative to Jackson's reflective bean serialization. It is enabled with
+ * {@code device.json.streaming-device-lists=true}, see {@link WebConfig}.
+ * <p>
+ * The output is the same as Jackson's for {@link Device} with Spring Boot's defaults. Field names are pre-encoded once, and
+ * timestamps are formatted only when they differ from the previous device's; devices created
+ * together share a creation time. Other bodies, and requests, are left to the default converters.
+ * <p>
+ * The field names and formats are fixed, so the converter checks them against the application's
+ * {@link ObjectMapper} when it is created: if that mapper writes sample devices differently, because of
+ * {@code spring.jackson.*} settings, mix-ins or annotations, the converter declines every list and logs a
+ * warning, and Jackson writes them instead.
+ */
+@Slf4j
+public class DeviceListHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<Device>> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString BRAND = new SerializedString("brand");
+    private static final SerializableString CREATION_TIME = new SerializedString("creationTime");
+    private static final SerializableString LAST_MODIFIED = new SerializedString("lastModified");
+
+    private final JsonFactory jsonFactory;
+    private final boolean sameAsObjectMapper;
+
+    public DeviceListHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = objectMapper.getFactory();
+        this.sameAsObjectMapper = writesSameJson(objectMapper);
+        if (!sameAsObjectMapper) {
+            log.warn("The ObjectMapper writes devices differently from the streaming converter, "
+                    + "device lists are left to Jackson");
+        }
+    }
+
+    private boolean writesSameJson(ObjectMapper objectMapper) {
+        // Covers every field, nulls, escaping, fractional seconds and repeated timestamps
+        LocalDateTime created = LocalDateTime.of(2024, 7, 1, 1, 13, 1, 722_000_000);
+        Device first = new Device(1L, "Device \"1\"", "BrandÄ", created);
+        first.setLastModified(LocalDateTime.of(2024, 7, 2, 9, 0));
+        List<Device> samples = List.of(first, new Device(null, null, null, created), new Device(3L, "Device3",
+                "BrandB", created.withNano(0)));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeDevices(samples, out);
+            return out.toString(StandardCharsets.UTF_8).equals(objectMapper.writeValueAsString(samples));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        // Without the declared type the element type of a list is unknown
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return sameAsObjectMapper && type != null && supports(clazz) && canWrite(mediaType)
+                && ResolvableType.forType(type).asCollection().resolveGeneric(0) == Device.class;
+    }
+
+    @Override
+    protected void writeInternal(List<Device> devices, Type type, HttpOutputMessage outputMessage) throws IOException {
+        writeDevices(devices, outputMessage.getBody());
+    }
+
+    /**
+     * Writes devices as a JSON array, without closing the stream.
+     *
+     * @param devices the devices to write
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeDevices(List<Device> devices, OutputStream out) throws IOException {
+        TimestampCache creationTimes = new TimestampCache();
+        TimestampCache lastModifiedTimes = new TimestampCache();
+        try (JsonGenerator generator = jsonFactory.createGenerator(StreamUtils.nonClosing(out), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (Device device : devices) {
+                generator.writeStartObject();
+                generator.writeFieldName(ID);
+                if (device.getId() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(device.getId());
+                }
+                generator.writeFieldName(NAME);
+                generator.writeString(device.getName());
+                generator.writeFieldName(BRAND);
+                generator.writeString(device.getBrand());
+                generator.writeFieldName(CREATION_TIME);
+                creationTimes.write(generator, device.getCreationTime());
+                generator.writeFieldName(LAST_MODIFIED);
+                lastModifiedTimes.write(generator, device.getLastModified());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    @Override
+    protected List<Device> readInternal(Class<? extends List<Device>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Device lists are not read by this converter", inputMessage);
+    }
+
+    @Override
+    public List<Device> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Device lists are not read by this converter", inputMessage);
+    }
+
+    /**
+     * Remembers the last timestamp written for one field, with its quoted UTF-8 encoding.
+     */
+    private static final class TimestampCache {
+        private LocalDateTime time;
+        private SerializableString text;
+
+        void write(JsonGenerator generator, LocalDateTime value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+                return;
+            }
+            if (!value.equals(time)) {
+                // Same format as Jackson's LocalDateTimeSerializer when dates are not written as timestamps
+                time = value;
+                text = new SerializedString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            }
+            generator.writeString(text);
+        }
+    }
+}
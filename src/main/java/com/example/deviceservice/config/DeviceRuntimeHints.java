@@ -0,0 +1,50 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.BulkCreateResult;
+import com.example.deviceservice.dto.BulkDeleteRequest;
+import com.example.deviceservice.dto.BulkGetRequest;
+import com.example.deviceservice.dto.BulkGetResult;
+import com.example.deviceservice.dto.BulkItemResult;
+import com.example.deviceservice.dto.BulkUpdateRequest;
+import com.example.deviceservice.dto.BulkWriteResult;
+import com.example.deviceservice.dto.DeviceChangePage;
+import com.example.deviceservice.dto.DeviceCursorPage;
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DevicePage;
+import com.example.deviceservice.dto.DeviceSearchPage;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceStats;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.model.DeviceChange;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints for a GraalVM native image, for what Spring's AOT processing cannot
+ * infer from the bean definitions: request and response bodies bound by Jackson, records created by
+ * the JPQL constructor expressions of {@code DeviceRepository}, and classes named in properties.
+ * The repository proxies and entity metadata are contributed by Spring Data and Hibernate themselves.
+ */
+public class DeviceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Same hints as @RegisterReflectionForBinding: constructors, accessors and nested types
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Device.class, DeviceChange.class, DeviceDto.class, DeviceView.class, DevicePage.class,
+                DeviceCursorPage.class, DeviceChangePage.class, DeviceSearchPage.class, DeviceStats.class,
+                BulkCreateResult.class, BulkItemResult.class, BulkUpdateRequest.class, BulkDeleteRequest.class,
+                BulkWriteResult.class, BulkGetRequest.class, BulkGetResult.class);
+        // "select new ..." in DeviceRepository
+        for (Class<?> projection : new Class<?>[]{DeviceView.class, DeviceStamp.class, BrandStamp.class}) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        // hibernate.session_factory.statement_inspector in application.properties
+        hints.reflection().registerType(QueryCountInspector.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.deviceservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Enables {@link io.micrometer.core.annotation.Timed @Timed} on Spring beans such as
+ * {@link com.example.deviceservice.service.DeviceService}, and carries the per-request query count
+ * to the application executor.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Applied by Spring Boot to the application executor, which also runs asynchronous MVC work such as
+     * {@code StreamingResponseBody} writers, so their statements count for the request that started them.
+     *
+     * @return the task decorator
+     */
+    @Bean
+    public TaskDecorator queryCountTaskDecorator() {
+        return QueryCountInspector::propagate;
+    }
+}
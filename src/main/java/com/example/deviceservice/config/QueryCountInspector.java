@@ -0,0 +1,61 @@
+package com.example.deviceservice.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the SQL statements Hibernate prepares for the current request.
+ * Registered through {@code hibernate.session_factory.statement_inspector} and read by
+ * {@link QueryCountInterceptor} to report queries per request.
+ * <p>
+ * The count belongs to the request, not to a thread: the interceptor opens one counter per request and
+ * binds it to every thread that dispatches the request, and {@link #propagate(Runnable)} binds it to the
+ * tasks the request hands to the application executor, such as {@code StreamingResponseBody} writers.
+ * Statements run by a thread that works for no request, such as the write-behind flusher, are not counted.
+ * Neither are statements that bypass Hibernate ({@code JdbcTemplate} and R2DBC), nor those of a coalesced
+ * lookup another request ran: they are counted once, for the request that ran them.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<AtomicLong> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicLong count = CURRENT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static void bind(AtomicLong count) {
+        CURRENT.set(count);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task so that the statements it runs count for the request that submitted it.
+     *
+     * @param task the task submitted by the current thread
+     * @return the task bound to the current request's counter, or the task itself outside a request
+     */
+    static Runnable propagate(Runnable task) {
+        AtomicLong count = CURRENT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            AtomicLong previous = CURRENT.get();
+            CURRENT.set(count);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.deviceservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the number of SQL statements each request issued as the {@code device.http.queries}
+ * distribution summary, tagged by HTTP method and URI template.
+ * <p>
+ * The counter is kept as a request attribute, so an asynchronous request is counted across its
+ * dispatches and the tasks it started, whichever threads they ran on; see {@link QueryCountInspector}.
+ */
+@Component
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNT_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".count";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Called again on the async dispatch, which continues the count of the initial one
+        AtomicLong count = (AtomicLong) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            count = new AtomicLong();
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        }
+        QueryCountInspector.bind(count);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The container thread goes back to the pool while the request continues elsewhere
+        QueryCountInspector.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryCountInspector.unbind();
+        AtomicLong count = (AtomicLong) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("device.http.queries")
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count.get());
+    }
+}
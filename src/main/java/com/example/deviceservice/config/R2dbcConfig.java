@@ -0,0 +1,59 @@
+package com.example.deviceservice.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access to the device database for the reactive API.
+ * The connection pool is deliberately not exposed as a {@code ConnectionFactory} bean: Spring Boot
+ * would then back off from the JDBC {@code DataSource} that JPA and the MVC API run on.
+ * The pool is derived from {@code spring.datasource.*}, so both stacks always see the same database.
+ */
+@Configuration
+public class R2dbcConfig implements DisposableBean {
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates the database client used by the reactive repository.
+     *
+     * @param url the JDBC URL of the device database, which must be an H2 URL
+     * @param username the database user
+     * @param password the database password
+     * @param maxSize the maximum number of pooled R2DBC connections
+     * @return the database client
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${spring.datasource.url}") String url,
+                                                 @Value("${spring.datasource.username:}") String username,
+                                                 @Value("${spring.datasource.password:}") String password,
+                                                 @Value("${device.reactive.pool.max-size:10}") int maxSize) {
+        if (!url.startsWith(H2_JDBC_PREFIX)) {
+            throw new IllegalStateException("The reactive API requires an H2 datasource, got " + url);
+        }
+        H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_JDBC_PREFIX.length()))
+                .username(username)
+                .password(password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
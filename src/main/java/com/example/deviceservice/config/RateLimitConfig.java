@@ -0,0 +1,58 @@
+package com.example.deviceservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-client rate limiting and load shedding for the device API ({@code device.rate-limit.enabled=true}).
+ * The interceptor is registered for {@code /devices/**} by {@link WebConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "device.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    /**
+     * Creates the rate limiter.
+     *
+     * @param clientHeader the request header identifying the client behind a trusted proxy
+     * @param trustedProxies the addresses of the proxies whose client header is trusted; other clients are
+     *                       identified by their address
+     * @param ratePerSecond the sustained requests per second allowed per client and endpoint
+     * @param burst the requests a client may send to an endpoint at once after being idle
+     * @param maxClients the number of client and endpoint buckets kept in memory
+     * @param maxConcurrentListings the full listings and exports served at once, per endpoint
+     * @param maxConcurrentBrandSearches the brand searches served at once, per brand endpoint
+     * @param maxConcurrentSearches the name and brand searches ({@code GET /devices/search}) served at once
+     * @return the interceptor
+     */
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(MeterRegistry meterRegistry,
+                                                     @Value("${device.rate-limit.client-header:X-Client-Id}") String clientHeader,
+                                                     @Value("${device.rate-limit.trusted-proxies:}") Set<String> trustedProxies,
+                                                     @Value("${device.rate-limit.rate-per-second:50}") double ratePerSecond,
+                                                     @Value("${device.rate-limit.burst:100}") int burst,
+                                                     @Value("${device.rate-limit.max-clients:10000}") long maxClients,
+                                                     @Value("${device.rate-limit.max-concurrent-listings:4}") int maxConcurrentListings,
+                                                     @Value("${device.rate-limit.max-concurrent-brand-searches:8}") int maxConcurrentBrandSearches,
+                                                     @Value("${device.rate-limit.max-concurrent-searches:8}") int maxConcurrentSearches) {
+        Map<String, Integer> concurrencyLimits = new LinkedHashMap<>();
+        concurrencyLimits.put("GET /devices", maxConcurrentListings);
+        concurrencyLimits.put("GET /devices/views", maxConcurrentListings);
+        // Streamed responses keep their permit until the stream is written, see RateLimitInterceptor#afterCompletion
+        concurrencyLimits.put("GET /devices/stream", maxConcurrentListings);
+        concurrencyLimits.put("GET /devices/created/export", maxConcurrentListings);
+        concurrencyLimits.put("GET /devices/brand/{brand}", maxConcurrentBrandSearches);
+        concurrencyLimits.put("GET /devices/brand/{brand}/page", maxConcurrentBrandSearches);
+        concurrencyLimits.put("GET /devices/views/brand/{brand}", maxConcurrentBrandSearches);
+        concurrencyLimits.put("GET /devices/search", maxConcurrentSearches);
+        return new RateLimitInterceptor(meterRegistry, clientHeader, trustedProxies, ratePerSecond, burst, maxClients,
+                concurrencyLimits, System::nanoTime);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.exception.RequestThrottledException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sheds device requests before they reach the controller, so one client cannot starve the others.
+ * <ul>
+ *     <li>Every client gets a token bucket per endpoint (HTTP method and URI template), refilled at
+ *     {@code ratePerSecond} up to {@code burst} tokens. Clients are told apart by their address. The client
+ *     header is only trusted on requests from one of the trusted proxies, as anyone else could send a new value
+ *     with every request to get a fresh bucket and push real clients out of the bounded bucket cache.</li>
+ *     <li>Expensive endpoints additionally have a limit on the requests they serve at once, shared by all
+ *     clients. A request over the limit is rejected immediately rather than queued.</li>
+ * </ul>
+ * Rejected requests raise {@link RequestThrottledException}, answered with 429 and {@code Retry-After},
+ * and are counted in the {@code device.rate-limit.shed} metric, tagged by reason and URI template.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".permit";
+
+    private final MeterRegistry meterRegistry;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Map<String, Semaphore> concurrencyLimits;
+    private final LongSupplier nanoClock;
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * @param meterRegistry the registry the shed requests are counted in
+     * @param clientHeader the request header identifying the client behind a trusted proxy
+     * @param trustedProxies the addresses of the proxies whose client header is trusted
+     * @param ratePerSecond the sustained requests per second allowed per client and endpoint
+     * @param burst the requests a client may send at once after being idle
+     * @param maxClients the number of client and endpoint buckets kept; the least recently used are dropped
+     * @param concurrencyLimits the requests served at once per URI template, for the endpoints that have a limit
+     * @param nanoClock the time source, {@link System#nanoTime()} outside of tests
+     */
+    public RateLimitInterceptor(MeterRegistry meterRegistry, String clientHeader, Set<String> trustedProxies,
+                                double ratePerSecond, int burst, long maxClients, Map<String, Integer> concurrencyLimits,
+                                LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.concurrencyLimits = Map.copyOf(concurrencyLimits.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> new Semaphore(e.getValue()))));
+        this.nanoClock = nanoClock;
+        // An idle bucket is full again after one burst interval, so it can be dropped without changing any answer
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async and error dispatches belong to a request that was already admitted
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Not the raw URI, which would give every unmapped path its own bucket and metric
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String endpoint = request.getMethod() + " " + uri;
+
+        long waitNanos = buckets.get(clientOf(request) + '|' + endpoint, key -> new TokenBucket())
+                .tryAcquire(nanoClock.getAsLong(), intervalNanos, burstNanos);
+        if (waitNanos > 0) {
+            // Rounded up, so a client that honours Retry-After finds a token
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+            throw shed("rate", uri, "Request rate limit exceeded for " + endpoint, retryAfterSeconds);
+        }
+
+        Semaphore permits = concurrencyLimits.get(endpoint);
+        if (permits != null) {
+            if (!permits.tryAcquire()) {
+                throw shed("concurrency", uri, "Too many concurrent requests for " + endpoint, 1);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, permits);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the concurrency permit. For a request that went asynchronous, such as a streamed response, this
+     * only runs at the end of its async dispatch, so the permit is held until the response has been written.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Semaphore permits) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeader(clientHeader);
+        return client == null || client.isBlank() ? address : client;
+    }
+
+    private RequestThrottledException shed(String reason, String uri, String message, long retryAfterSeconds) {
+        meterRegistry.counter("device.rate-limit.shed", "reason", reason, "uri", uri).increment();
+        return new RequestThrottledException(message, retryAfterSeconds);
+    }
+
+    /**
+     * Token bucket kept as the single time at which it will be full again, so taking a token is one
+     * compare-and-set (the generic cell rate algorithm). Each request moves that time forward by one
+     * interval; a request that would move it more than a burst past now is rejected.
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next one is available
+         */
+        long tryAcquire(long now, long intervalNanos, long burstNanos) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.service.DeviceChangeFeed;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled maintenance tasks, such as the compaction of the device change outbox.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Keeps the beans with scheduled tasks eager under lazy initialization (the {@code fast-startup}
+     * profile), as their tasks are only scheduled once the bean is created.
+     *
+     * @return the filter excluding those beans from lazy initialization
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DeviceChangeFeed.class);
+    }
+}
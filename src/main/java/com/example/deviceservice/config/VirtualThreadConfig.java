@@ -0,0 +1,43 @@
+package com.example.deviceservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Settings applied when requests run on virtual threads ({@code spring.threads.virtual.enabled=true},
+ * see the {@code virtual-threads} profile). Tomcat then handles every request, and with it the
+ * {@code DeviceController} and {@code DeviceService} calls, on its own virtual thread.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Limits concurrent device requests to what the connection pool can serve. The change feed's long polls
+     * are left out: they wait without a connection, and would otherwise hold permits for minutes.
+     *
+     * @param maxConcurrentRequests the number of requests allowed in flight, defaults to the pool size
+     * @param acquireTimeout how long a request may wait for a permit before being rejected
+     * @param objectMapper writes the problem detail of rejected requests
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<ConnectionLimitFilter> connectionLimitFilter(
+            @Value("${device.virtual-threads.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentRequests,
+            @Value("${device.virtual-threads.acquire-timeout:2s}") Duration acquireTimeout,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<ConnectionLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConnectionLimitFilter(maxConcurrentRequests, acquireTimeout,
+                        objectMapper, Set.of("/devices/changes")));
+        registration.addUrlPatterns("/devices", "/devices/*");
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.deviceservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the interceptors applied to the device endpoints (the rate limiter when
+ * {@code device.rate-limit.enabled} is set, and the query counter), the CBOR message converter, and the
+ * streaming writer for device lists when {@code device.json.streaming-device-lists} is set.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private QueryCountInterceptor queryCountInterceptor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Value("${device.json.streaming-device-lists:false}")
+    private boolean streamingDeviceLists;
+
+    /**
+     * Reads and writes {@code application/cbor} bodies, a compact binary encoding of the same data model
+     * as JSON, for service-to-service calls. The mapper gets the same {@code spring.jackson.*} settings as
+     * the JSON one, so both encodings carry the same fields and date representation.
+     *
+     * @param builder Spring Boot's Jackson builder, a new instance per injection point
+     * @return the converter, picked up by Spring Boot's {@code HttpMessageConverters}
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (rateLimitInterceptor != null) {
+            // First, so shed requests are turned away before any other work is done for them
+            registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/devices/**");
+        }
+        registry.addInterceptor(queryCountInterceptor).addPathPatterns("/devices/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (streamingDeviceLists) {
+            // Ahead of Jackson, which would otherwise claim the lists first
+            converters.add(0, new DeviceListHttpMessageConverter(objectMapper));
+        }
+    }
+}
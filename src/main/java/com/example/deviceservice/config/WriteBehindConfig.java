@@ -0,0 +1,49 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.service.DeviceChangeFeed;
+import com.example.deviceservice.service.DeviceSearchIndex;
+import com.example.deviceservice.service.DeviceStatistics;
+import com.example.deviceservice.service.DeviceWriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Write-behind mode for device registration ({@code device.write-behind.enabled=true}).
+ * {@code DeviceService.createDevice} then queues devices instead of inserting them in its own transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "device.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    /**
+     * Creates the write-behind buffer.
+     *
+     * @param capacity the maximum number of queued devices
+     * @param batchSize the maximum number of devices inserted per transaction
+     * @param flushInterval the maximum time a device waits before its batch is written
+     * @param offerTimeout how long a registration may wait for room in a full queue before being rejected
+     * @return the buffer
+     */
+    @Bean
+    public DeviceWriteBehindBuffer deviceWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                                           PlatformTransactionManager transactionManager,
+                                                           CacheManager cacheManager, DeviceChangeFeed changeFeed,
+                                                           DeviceStatistics statistics, DeviceSearchIndex searchIndex,
+                                                           MeterRegistry meterRegistry,
+                                                           @Value("${device.write-behind.capacity:10000}") int capacity,
+                                                           @Value("${device.write-behind.batch-size:500}") int batchSize,
+                                                           @Value("${device.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                                           @Value("${device.write-behind.offer-timeout:100ms}") Duration offerTimeout) {
+        return new DeviceWriteBehindBuffer(jdbcTemplate, new TransactionTemplate(transactionManager), cacheManager,
+                changeFeed, statistics, searchIndex, meterRegistry, capacity, batchSize, flushInterval, offerTimeout);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceChangePage;
+import com.example.deviceservice.exception.ChangeFeedExpiredException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.service.DeviceChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Incremental feed of device mutations, so that downstream systems can follow the device table
+ * instead of repeatedly downloading {@code GET /devices}.
+ */
+@RestController
+@RequestMapping("/devices/changes")
+public class DeviceChangeController {
+
+    @Autowired
+    private DeviceChangeFeed changeFeed;
+
+    @Value("${device.page.default-size:100}")
+    private int defaultPageSize;
+
+    /**
+     * Retrieves the device changes after a position in the feed, as a long poll: when there are none
+     * yet, the request is held until the next change commits or {@code wait} seconds have passed.
+     * The request thread is released while waiting.
+     *
+     * @param since the {@code next} value of the previous response, omitted to start from the oldest retained change
+     * @param limit the maximum number of changes, defaults to {@code device.page.default-size}
+     * @param wait how many seconds to wait for a change, capped at {@code device.changes.max-wait}
+     * @return the changes in feed order and the position to continue from
+     * @throws ChangeFeedExpiredException if {@code since} is outside the replay window (410 Gone)
+     * @throws InvalidDeviceRequestException if the limit is out of range
+     */
+    @GetMapping
+    public CompletableFuture<DeviceChangePage> getChanges(@RequestParam(required = false) Long since,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(defaultValue = "0") long wait) {
+        return changeFeed.awaitChanges(since == null ? changeFeed.replayStart() : since,
+                limit == null ? defaultPageSize : limit, Duration.ofSeconds(wait));
+    }
+}
@@ -1,25 +1,87 @@
 package com.example.deviceservice.controller;
 
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.BulkCreateResult;
+import com.example.deviceservice.dto.BulkDeleteRequest;
+import com.example.deviceservice.dto.BulkGetRequest;
+import com.example.deviceservice.dto.BulkGetResult;
+import com.example.deviceservice.dto.BulkItemResult;
+import com.example.deviceservice.dto.BulkUpdateRequest;
+import com.example.deviceservice.dto.BulkWriteResult;
+import com.example.deviceservice.dto.DeviceCursorPage;
 import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DevicePage;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.model.Device;
 import com.example.deviceservice.service.DeviceService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.example.deviceservice.exception.DeviceNotFoundException;
 import com.example.deviceservice.exception.DeviceServiceException;
+import com.example.deviceservice.exception.DeviceVersionConflictException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/devices")
 @Slf4j
 public class DeviceController {
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
 
     @Autowired
     private DeviceService deviceService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${device.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${device.page.default-size:100}")
+    private int defaultPageSize;
+
     /**
      * Creates a new device.
      *
@@ -35,19 +97,107 @@ public class DeviceController {
     }
 
     /**
-     * Retrieves a device by its ID.
+     * Creates many devices from a JSON or CBOR array.
+     *
+     * @param deviceDtos the data transfer objects containing the device details
+     * @return the number of created and rejected entries with a result per entry
+     * @throws DeviceServiceException if an error occurs while creating the devices
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BulkCreateResult> addDevices(@RequestBody List<DeviceDto> deviceDtos) {
+        BulkCreateResult result = deviceService.createDevices(deviceDtos);
+        log.info("Bulk create: {} devices created, {} rejected", result.created(), result.invalid());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Creates many devices from an NDJSON stream, one device per line.
+     * The stream is read incrementally and committed every {@code device.bulk.chunk-size} lines,
+     * so the request body is never held in memory as a whole. Malformed lines are reported as
+     * invalid entries.
+     *
+     * @param body the NDJSON request body
+     * @return the number of created and rejected entries with a result per entry
+     * @throws DeviceServiceException if an error occurs while creating the devices
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkCreateResult> addDevicesFromStream(InputStream body) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(DeviceDto.class);
+        List<BulkItemResult> items = new ArrayList<>();
+        List<DeviceDto> chunk = new ArrayList<>();
+        List<Integer> chunkIndexes = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            int index = 0;
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(reader.readValue(line));
+                    chunkIndexes.add(index);
+                } catch (JsonProcessingException e) {
+                    items.add(BulkItemResult.invalid(index, List.of("Malformed JSON: " + e.getOriginalMessage())));
+                }
+                index++;
+                if (chunk.size() == bulkChunkSize) {
+                    createChunk(chunk, chunkIndexes, items);
+                }
+            }
+        }
+        createChunk(chunk, chunkIndexes, items);
+        items.sort(Comparator.comparingInt(BulkItemResult::index));
+
+        BulkCreateResult result = BulkCreateResult.of(items);
+        log.info("Bulk stream create: {} devices created, {} rejected", result.created(), result.invalid());
+        return ResponseEntity.ok(result);
+    }
+
+    private void createChunk(List<DeviceDto> chunk, List<Integer> chunkIndexes, List<BulkItemResult> items) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (BulkItemResult item : deviceService.createDevices(chunk).items()) {
+            items.add(item.withIndex(chunkIndexes.get(item.index())));
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    /**
+     * Retrieves a device by its ID, with its version as ETag and its modification time as Last-Modified.
+     * A request with {@code If-None-Match} or {@code If-Modified-Since} is first checked against the
+     * version columns alone; if the device did not change, 304 (Not Modified) is returned without
+     * loading or serializing it.
      *
      * @param id the ID of the device to retrieve
-     * @return the device with the specified ID
+     * @param request the current request, carrying the conditional headers
+     * @return the device with the specified ID, or {@code null} once a 304 response has been prepared
      * @throws DeviceNotFoundException if the device with the specified ID is not found
      * @throws DeviceServiceException if an error occurs while retrieving the device
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Device> getDeviceById(@PathVariable Long id) {
-        Device device = deviceService.findDeviceById(id);
+    public ResponseEntity<Device> getDeviceById(@PathVariable Long id, WebRequest request) {
+        // Misses come back as empty results; the exception is only created here, once, to become the 404
+        if (isConditional(request)) {
+            DeviceStamp stamp = deviceService.findDeviceStamp(id)
+                    .orElseThrow(() -> new DeviceNotFoundException(id));
+            if (request.checkNotModified(stamp.etag(), stamp.lastModifiedMillis())) {
+                return null;
+            }
+            return ResponseEntity.ok(deviceService.findDevice(id).orElseThrow(() -> new DeviceNotFoundException(id)));
+        }
+        Device device = deviceService.findDevice(id).orElseThrow(() -> new DeviceNotFoundException(id));
+        DeviceStamp stamp = DeviceStamp.of(device);
+        // Without conditional headers this only sets the ETag and Last-Modified response headers
+        request.checkNotModified(stamp.etag(), stamp.lastModifiedMillis());
         return ResponseEntity.ok(device);
     }
 
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
     /**
      * Retrieves all devices.
      *
@@ -61,66 +211,398 @@ public class DeviceController {
     }
 
     /**
-     * Searches for devices by their brand.
+     * Retrieves one page of devices using keyset pagination on the device id.
+     *
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @param size the maximum number of devices on the page, defaults to {@code device.page.default-size}
+     * @return the page of devices and the cursor for the next page
+     * @throws InvalidDeviceRequestException if the cursor is malformed or the size is out of range
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping("/page")
+    public ResponseEntity<DeviceCursorPage> getDevicesPage(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        DeviceCursorPage page = deviceService.findDevicesPage(cursor, size == null ? defaultPageSize : size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Streams all devices as NDJSON, one device per line.
+     * Devices are written as they are read from the database, so memory stays flat regardless of table size.
+     *
+     * @return the streaming response body
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamDevices() {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON))
+                .body(ndjson(deviceService::streamAllDevices));
+    }
+
+    /**
+     * Retrieves one page of the devices created in a time range using keyset pagination on creation time and id.
+     *
+     * @param from the earliest creation time, inclusive, as an ISO date-time
+     * @param to the latest creation time, exclusive, as an ISO date-time
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @param size the maximum number of devices on the page, defaults to {@code device.page.default-size}
+     * @return the page of devices, oldest first, and the cursor for the next page
+     * @throws InvalidDeviceRequestException if the range is empty, the cursor is malformed or the size is out of range
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping("/created")
+    public ResponseEntity<DeviceCursorPage> getDevicesCreatedBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deviceService.findDevicesCreatedBetween(from, to, cursor,
+                size == null ? defaultPageSize : size));
+    }
+
+    /**
+     * Exports the devices created in a time range as NDJSON or CSV, oldest first.
+     * Devices are written as they are read from the database, so memory stays flat regardless of the range.
+     *
+     * @param from the earliest creation time, inclusive, as an ISO date-time
+     * @param to the latest creation time, exclusive, as an ISO date-time
+     * @param format {@code ndjson} (default) or {@code csv}
+     * @return the streaming response body
+     * @throws InvalidDeviceRequestException if the range is empty or the format is unknown
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping("/created/export")
+    public ResponseEntity<StreamingResponseBody> exportDevicesCreatedBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if (!from.isBefore(to)) {
+            // Checked here as well: once streaming has started, the status can no longer be changed
+            throw new InvalidDeviceRequestException("From must be before to");
+        }
+        Consumer<Consumer<Device>> source = consumer -> deviceService.streamDevicesCreatedBetween(from, to, consumer);
+        return switch (format) {
+            case "ndjson" -> ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(ndjson(source));
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(CSV))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"devices.csv\"")
+                    .body(csv(source));
+            default -> throw new InvalidDeviceRequestException("Unknown export format: " + format);
+        };
+    }
+
+    private StreamingResponseBody ndjson(Consumer<Consumer<Device>> source) {
+        ObjectWriter writer = objectMapper.writerFor(Device.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // Lines are terminated explicitly instead of Jackson's default space between root values
+                generator.setRootValueSeparator(null);
+                source.accept(device -> {
+                    try {
+                        writer.writeValue(generator, device);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private static StreamingResponseBody csv(Consumer<Consumer<Device>> source) {
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write("id,name,brand,creationTime,lastModified\r\n");
+            source.accept(device -> {
+                try {
+                    writer.write(String.valueOf(device.getId()));
+                    writer.write(',');
+                    writer.write(csvField(device.getName()));
+                    writer.write(',');
+                    writer.write(csvField(device.getBrand()));
+                    writer.write(',');
+                    writer.write(csvField(device.getCreationTime()));
+                    writer.write(',');
+                    writer.write(csvField(device.getLastModified()));
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+    }
+
+    /**
+     * Formats a CSV field as in RFC 4180: quoted, with quotes doubled, when it contains a separator, quote or line break.
+     */
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        // Same representation as in the JSON bodies
+        String text = value instanceof LocalDateTime time
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time)
+                : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Retrieves the read-only view of a device by its ID.
+     *
+     * @param id the ID of the device to retrieve
+     * @param fields the comma-separated fields to return, all fields when omitted
+     * @return the selected fields of the device
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws InvalidDeviceRequestException if a field is unknown
+     * @throws DeviceServiceException if an error occurs while retrieving the device
+     */
+    @GetMapping("/views/{id}")
+    public ResponseEntity<MappingJacksonValue> getDeviceViewById(@PathVariable Long id,
+                                                                 @RequestParam(required = false) String fields) {
+        SimpleFilterProvider filter = fieldFilter(fields);
+        return ResponseEntity.ok(withFilter(deviceService.findDeviceView(id), filter));
+    }
+
+    /**
+     * Retrieves the read-only views of all devices.
+     *
+     * @param fields the comma-separated fields to return, all fields when omitted
+     * @return the selected fields of every device, ordered by id
+     * @throws InvalidDeviceRequestException if a field is unknown
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping("/views")
+    public ResponseEntity<MappingJacksonValue> getAllDeviceViews(@RequestParam(required = false) String fields) {
+        SimpleFilterProvider filter = fieldFilter(fields);
+        return ResponseEntity.ok(withFilter(deviceService.findAllDeviceViews(), filter));
+    }
+
+    /**
+     * Retrieves the read-only views of the devices of a brand.
+     *
+     * @param brand the brand of the devices to search for
+     * @param fields the comma-separated fields to return, all fields when omitted
+     * @return the selected fields of the devices with the specified brand, ordered by id
+     * @throws InvalidDeviceRequestException if a field is unknown
+     * @throws DeviceServiceException if an error occurs while finding devices by brand
+     */
+    @GetMapping("/views/brand/{brand}")
+    public ResponseEntity<MappingJacksonValue> searchDeviceViewsByBrand(@PathVariable String brand,
+                                                                        @RequestParam(required = false) String fields) {
+        SimpleFilterProvider filter = fieldFilter(fields);
+        return ResponseEntity.ok(withFilter(deviceService.findDeviceViewsByBrand(brand), filter));
+    }
+
+    private static SimpleFilterProvider fieldFilter(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new SimpleFilterProvider().addFilter(DeviceView.FILTER, SimpleBeanPropertyFilter.serializeAll());
+        }
+        Set<String> selected = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        for (String field : selected) {
+            if (!DeviceView.FIELDS.contains(field)) {
+                throw new InvalidDeviceRequestException("Unknown device field: " + field);
+            }
+        }
+        return new SimpleFilterProvider().addFilter(DeviceView.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+    }
+
+    private static MappingJacksonValue withFilter(Object body, SimpleFilterProvider filter) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filter);
+        return value;
+    }
+
+    /**
+     * Searches for devices by their brand, with an ETag summarizing the whole list.
+     * A request with {@code If-None-Match} is first checked against an aggregate over the brand;
+     * if no device of the brand changed, 304 (Not Modified) is returned without loading the list.
+     * No Last-Modified is sent, as removing a device from the brand does not advance it.
      *
      * @param brand the brand of the devices to search for
-     * @return a list of devices with the specified brand
+     * @param request the current request, carrying the conditional headers
+     * @return a list of devices with the specified brand, or {@code null} once a 304 response has been prepared
      * @throws DeviceServiceException if an error occurs while finding devices by brand
      */
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<Device>> searchDevicesByBrand(@PathVariable String brand) {
+    public ResponseEntity<List<Device>> searchDevicesByBrand(@PathVariable String brand, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            if (request.checkNotModified(deviceService.findBrandStamp(brand).etag())) {
+                return null;
+            }
+            return ResponseEntity.ok(deviceService.findDevicesByBrand(brand));
+        }
         List<Device> devices = deviceService.findDevicesByBrand(brand);
-        return ResponseEntity.ok(devices);
+        return ResponseEntity.ok().eTag(BrandStamp.of(devices).etag()).body(devices);
+    }
+
+    /**
+     * Searches one page of devices by brand, optionally ignoring case or matching a brand prefix.
+     *
+     * @param brand the brand, or brand prefix, to search for
+     * @param ignoreCase whether to match the brand case-insensitively
+     * @param prefix whether to match brands starting with {@code brand}
+     * @param pageable the page, size and sort, e.g. {@code ?page=0&size=20&sort=name,asc}
+     * @return the page of matching devices
+     * @throws InvalidDeviceRequestException if the sort refers to an unknown property
+     * @throws DeviceServiceException if an error occurs while searching devices
+     */
+    @GetMapping("/brand/{brand}/page")
+    public ResponseEntity<DevicePage> searchDevicesByBrandPage(@PathVariable String brand,
+                                                               @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                                               @RequestParam(defaultValue = "false") boolean prefix,
+                                                               Pageable pageable) {
+        DevicePage page = deviceService.searchDevicesByBrand(brand, ignoreCase, prefix, pageable);
+        return ResponseEntity.ok(page);
     }
 
     /**
      * Updates an existing device.
+     * With a {@code Prefer: return=minimal} header the device is not read back and 204 (No Content) is returned.
+     * With an {@code If-Match} header the device is only updated if it still has that version.
      *
      * @param id the ID of the device to update
      * @param deviceDto the data transfer object containing the updated device details
-     * @return the updated device
+     * @param prefer the optional {@code Prefer} request header
+     * @param ifMatch the optional {@code If-Match} request header
+     * @return the updated device, with its new version as ETag
      * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not match {@code If-Match}
+     * @throws InvalidDeviceRequestException if {@code If-Match} is malformed
      * @throws DeviceServiceException if an error occurs while updating the device
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Device> updateDevice(@PathVariable Long id, @Valid @RequestBody DeviceDto deviceDto) {
-        Device updatedDevice = deviceService.updateDevice(id, deviceDto);
-        return ResponseEntity.ok(updatedDevice);
+    public ResponseEntity<Device> updateDevice(@PathVariable Long id, @Valid @RequestBody DeviceDto deviceDto,
+                                               @RequestHeader(value = PREFER, required = false) String prefer,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (RETURN_MINIMAL.equals(prefer)) {
+            deviceService.applyUpdate(id, deviceDto, false, expectedVersion);
+            return ResponseEntity.noContent().header(PREFERENCE_APPLIED, RETURN_MINIMAL).build();
+        }
+        Device updatedDevice = deviceService.updateDevice(id, deviceDto, expectedVersion);
+        return withETag(updatedDevice);
     }
 
     /**
-     * Partially updates an existing device.
+     * Partially updates an existing device. Only the non-null fields of the body are changed.
+     * With a {@code Prefer: return=minimal} header the device is not read back and 204 (No Content) is returned.
+     * With an {@code If-Match} header the device is only updated if it still has that version.
      *
      * @param id the ID of the device to update
-     * @param deviceDto the data transfer object containing the updated device details
-     * @return the updated device
+     * @param deviceDto the data transfer object containing the fields to change
+     * @param prefer the optional {@code Prefer} request header
+     * @param ifMatch the optional {@code If-Match} request header
+     * @return the updated device, with its new version as ETag
      * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not match {@code If-Match}
+     * @throws InvalidDeviceRequestException if {@code If-Match} is malformed
      * @throws DeviceServiceException if an error occurs while updating the device
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Device> partialUpdateDevice(@PathVariable Long id, @RequestBody DeviceDto deviceDto) {
-        Device existingDevice = deviceService.findDeviceById(id);
-        if (deviceDto.name() != null) {
-            existingDevice.setName(deviceDto.name());
-        }
-        if (deviceDto.brand() != null) {
-            existingDevice.setBrand(deviceDto.brand());
+    public ResponseEntity<Device> partialUpdateDevice(@PathVariable Long id, @RequestBody DeviceDto deviceDto,
+                                                      @RequestHeader(value = PREFER, required = false) String prefer,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (RETURN_MINIMAL.equals(prefer)) {
+            deviceService.applyUpdate(id, deviceDto, true, expectedVersion);
+            return ResponseEntity.noContent().header(PREFERENCE_APPLIED, RETURN_MINIMAL).build();
         }
-        Device updatedDevice = deviceService.updateDevice(id, deviceDto);
-        return ResponseEntity.ok(updatedDevice);
+        Device updatedDevice = deviceService.patchDevice(id, deviceDto, expectedVersion);
+        return withETag(updatedDevice);
     }
 
     /**
      * Deletes a device by its ID.
+     * With an {@code If-Match} header the device is only deleted if it still has that version.
      *
      * @param id the ID of the device to delete
+     * @param ifMatch the optional {@code If-Match} request header
      * @return a response entity with status code 204 (No Content)
      * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not match {@code If-Match}
+     * @throws InvalidDeviceRequestException if {@code If-Match} is malformed
      * @throws DeviceServiceException if an error occurs while deleting the device
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteDevice(@PathVariable Long id) {
-        deviceService.deleteDevice(id);
+    public ResponseEntity<Void> deleteDevice(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        deviceService.deleteDevice(id, expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Retrieves many devices by id in one request, so that callers resolving a list of ids need neither
+     * one request nor one query per device.
+     *
+     * @param request the IDs of the devices
+     * @return the found devices and the requested IDs that were not found, both in request order
+     * @throws InvalidDeviceRequestException if the IDs are missing, contain {@code null} or are too many
+     * @throws DeviceServiceException if an error occurs while retrieving the devices
+     */
+    @PostMapping("/bulk/get")
+    public ResponseEntity<BulkGetResult> getDevicesByIds(@RequestBody BulkGetRequest request) {
+        return ResponseEntity.ok(deviceService.findDevicesByIds(request.ids()));
+    }
+
+    /**
+     * Renames or rebrands many devices, selected by a list of ids or by brand.
+     *
+     * @param request the selection and the fields to change
+     * @return the number of updated devices and the requested IDs that were not found
+     * @throws InvalidDeviceRequestException if the selection is not exactly one of ids and brand, or nothing is changed
+     * @throws DeviceServiceException if an error occurs while updating the devices
+     */
+    @PostMapping("/bulk/update")
+    public ResponseEntity<BulkWriteResult> updateDevices(@RequestBody BulkUpdateRequest request) {
+        BulkWriteResult result = deviceService.updateDevices(request);
+        log.info("Bulk update: {} devices updated, {} not found", result.affected(), result.notFound().size());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Deletes many devices, selected by a list of ids or by brand.
+     *
+     * @param request the selection
+     * @return the number of deleted devices and the requested IDs that were not found
+     * @throws InvalidDeviceRequestException if the selection is not exactly one of ids and brand
+     * @throws DeviceServiceException if an error occurs while deleting the devices
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkWriteResult> deleteDevices(@RequestBody BulkDeleteRequest request) {
+        BulkWriteResult result = deviceService.deleteDevices(request);
+        log.info("Bulk delete: {} devices deleted, {} not found", result.affected(), result.notFound().size());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Reads the version expected by an {@code If-Match} header, {@code null} when absent or {@code *}.
+     * Only a single strong tag is accepted, as If-Match uses strong comparison.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new InvalidDeviceRequestException("If-Match must be a single strong entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidDeviceRequestException("If-Match does not hold a device version: " + tag);
+        }
+    }
+
+    private static ResponseEntity<Device> withETag(Device device) {
+        String etag = DeviceStamp.of(device).etag();
+        return etag == null ? ResponseEntity.ok(device) : ResponseEntity.ok().eTag(etag).body(device);
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceSearchPage;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.service.DeviceSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Partial and fuzzy search over device names and brands, served from memory instead of {@code LIKE '%q%'} scans.
+ */
+@RestController
+@RequestMapping("/devices/search")
+public class DeviceSearchController {
+
+    @Autowired
+    private DeviceSearchIndex searchIndex;
+
+    /**
+     * Searches devices whose name or brand resembles the query.
+     *
+     * @param q the words to look for, possibly partial or misspelled
+     * @param page the zero-based page number
+     * @param size the number of devices per page
+     * @return the page of matching devices, best match first
+     * @throws InvalidDeviceRequestException if the query has no letters or digits, or the page is out of range
+     */
+    @GetMapping
+    public DeviceSearchPage search(@RequestParam String q,
+                                   @RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "20") int size) {
+        return searchIndex.search(q, page, size);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceStats;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.service.DeviceStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fleet statistics for dashboards, served from memory instead of aggregating {@code GET /devices}.
+ */
+@RestController
+@RequestMapping("/devices/stats")
+public class DeviceStatsController {
+
+    @Autowired
+    private DeviceStatistics statistics;
+
+    /**
+     * Retrieves the device counts per brand, the top brands and the devices created per time bucket.
+     *
+     * @param top the number of top brands
+     * @param from the earliest creation time to report buckets for, as an ISO date-time
+     * @param to the creation time to report buckets until, exclusive, as an ISO date-time
+     * @return the statistics
+     * @throws InvalidDeviceRequestException if {@code top} is out of range or the time range is empty
+     */
+    @GetMapping
+    public DeviceStats getStats(@RequestParam(defaultValue = "10") int top,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return statistics.getStats(top, from, to);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.exception.DeviceServiceException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.service.ReactiveDeviceService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive edition of the {@link DeviceController} endpoints under {@code /reactive/devices}.
+ * Requests are validated and errors mapped exactly as for {@code /devices}. Listing and brand
+ * search stream NDJSON, one device per line, and only pull rows from the database as fast as the
+ * client reads them. Writes are served by the blocking {@link com.example.deviceservice.service.DeviceService}
+ * on a worker pool, so they scale no better than under {@code /devices}.
+ */
+@RestController
+@RequestMapping("/reactive/devices")
+@Slf4j
+public class ReactiveDeviceController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ReactiveDeviceService reactiveDeviceService;
+
+    /**
+     * Creates a new device.
+     *
+     * @param deviceDto the data transfer object containing the device details
+     * @return the created device
+     * @throws DeviceServiceException if an error occurs while creating the device
+     */
+    @PostMapping("/create")
+    public Mono<ResponseEntity<Device>> addDevice(@Valid @RequestBody DeviceDto deviceDto) {
+        return reactiveDeviceService.createDevice(deviceDto)
+                .doOnNext(device -> log.info("Device: {} of Brand: {} created", deviceDto.name(), deviceDto.brand()))
+                .map(device -> ResponseEntity.status(201).body(device));
+    }
+
+    /**
+     * Retrieves a device by its ID.
+     *
+     * @param id the ID of the device to retrieve
+     * @return the device with the specified ID
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceServiceException if an error occurs while retrieving the device
+     */
+    @GetMapping("/{id}")
+    public Mono<Device> getDeviceById(@PathVariable Long id) {
+        return reactiveDeviceService.findDeviceById(id);
+    }
+
+    /**
+     * Streams all devices as NDJSON.
+     *
+     * @return the devices, ordered by id
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @GetMapping(produces = NDJSON)
+    public Flux<Device> getAllDevices() {
+        return reactiveDeviceService.findAllDevices();
+    }
+
+    /**
+     * Streams the devices of a brand as NDJSON.
+     *
+     * @param brand the brand of the devices to search for
+     * @return the devices with the specified brand, ordered by id
+     * @throws DeviceServiceException if an error occurs while finding devices by brand
+     */
+    @GetMapping(value = "/brand/{brand}", produces = NDJSON)
+    public Flux<Device> searchDevicesByBrand(@PathVariable String brand) {
+        return reactiveDeviceService.findDevicesByBrand(brand);
+    }
+
+    /**
+     * Updates an existing device.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the updated device details
+     * @return the updated device
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceServiceException if an error occurs while updating the device
+     */
+    @PutMapping("/{id}")
+    public Mono<Device> updateDevice(@PathVariable Long id, @Valid @RequestBody DeviceDto deviceDto) {
+        return reactiveDeviceService.updateDevice(id, deviceDto);
+    }
+
+    /**
+     * Partially updates an existing device. Only the non-null fields of the body are changed.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the fields to change
+     * @return the updated device
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceServiceException if an error occurs while updating the device
+     */
+    @PatchMapping("/{id}")
+    public Mono<Device> partialUpdateDevice(@PathVariable Long id, @RequestBody DeviceDto deviceDto) {
+        return reactiveDeviceService.patchDevice(id, deviceDto);
+    }
+
+    /**
+     * Deletes a device by its ID.
+     *
+     * @param id the ID of the device to delete
+     * @return a response entity with status code 204 (No Content)
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceServiceException if an error occurs while deleting the device
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteDevice(@PathVariable Long id) {
+        return reactiveDeviceService.deleteDevice(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
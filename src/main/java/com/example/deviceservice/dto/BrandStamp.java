@@ -0,0 +1,39 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Aggregate of the devices of a brand. Creating, updating, deleting or moving a device in or out of
+ * the brand changes at least one of the components, so the derived entity tag changes too.
+ *
+ * @param count        the number of devices
+ * @param maxId        the highest device id, {@code null} without devices
+ * @param versionSum   the sum of the device versions, {@code null} without devices
+ * @param lastModified the latest modification time, {@code null} without devices
+ */
+public record BrandStamp(Long count, Long maxId, Long versionSum, LocalDateTime lastModified) {
+
+    public static BrandStamp of(List<Device> devices) {
+        return new BrandStamp((long) devices.size(),
+                devices.stream().map(Device::getId).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null),
+                devices.isEmpty() ? null : devices.stream().map(Device::getVersion).filter(Objects::nonNull)
+                        .mapToLong(Long::longValue).sum(),
+                devices.stream().map(Device::getLastModified).filter(Objects::nonNull)
+                        .max(Comparator.naturalOrder()).orElse(null));
+    }
+
+    /**
+     * @return the strong entity tag of the brand list
+     */
+    public String etag() {
+        long modified = lastModified == null ? 0 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return "\"" + count + "-" + (maxId == null ? 0 : maxId) + "-" + (versionSum == null ? 0 : versionSum)
+                + "-" + modified + "\"";
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.deviceservice.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk create request with one {@link BulkItemResult} per submitted entry.
+ *
+ * @param created the number of devices persisted
+ * @param invalid the number of entries rejected by validation
+ * @param items   the per-entry results, ordered by index
+ */
+public record BulkCreateResult(int created, int invalid, List<BulkItemResult> items) {
+
+    public static BulkCreateResult of(List<BulkItemResult> items) {
+        int created = (int) items.stream()
+                .filter(item -> item.status() == BulkItemResult.Status.CREATED)
+                .count();
+        return new BulkCreateResult(created, items.size() - created, items);
+    }
+}
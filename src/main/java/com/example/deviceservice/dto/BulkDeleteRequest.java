@@ -0,0 +1,11 @@
+package com.example.deviceservice.dto;
+
+import java.util.List;
+
+/**
+ * Bulk deletion of the devices selected either by id or by brand.
+ *
+ * @param ids   the IDs of the devices to delete, or {@code null} when selecting by brand
+ * @param brand the brand of the devices to delete, or {@code null} when selecting by id
+ */
+public record BulkDeleteRequest(List<Long> ids, String brand) { }
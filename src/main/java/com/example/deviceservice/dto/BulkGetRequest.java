@@ -0,0 +1,10 @@
+package com.example.deviceservice.dto;
+
+import java.util.List;
+
+/**
+ * Bulk retrieval of devices by id.
+ *
+ * @param ids the IDs of the devices to retrieve
+ */
+public record BulkGetRequest(List<Long> ids) { }
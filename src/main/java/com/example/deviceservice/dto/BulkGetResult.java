@@ -0,0 +1,13 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+
+import java.util.List;
+
+/**
+ * Devices retrieved by a bulk get.
+ *
+ * @param devices  the devices found, in request order, each once even if requested several times
+ * @param notFound the requested IDs that matched no device, in request order
+ */
+public record BulkGetResult(List<Device> devices, List<Long> notFound) { }
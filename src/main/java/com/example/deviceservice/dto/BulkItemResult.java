@@ -0,0 +1,31 @@
+package com.example.deviceservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of a single entry of a bulk create request.
+ *
+ * @param index  position of the entry in the submitted array or NDJSON stream
+ * @param status whether the entry was created or rejected
+ * @param id     the id of the created device, {@code null} when rejected
+ * @param errors the validation errors, {@code null} when created
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, Status status, Long id, List<String> errors) {
+
+    public enum Status { CREATED, INVALID }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BulkItemResult invalid(int index, List<String> errors) {
+        return new BulkItemResult(index, Status.INVALID, null, errors);
+    }
+
+    public BulkItemResult withIndex(int newIndex) {
+        return new BulkItemResult(newIndex, status, id, errors);
+    }
+}
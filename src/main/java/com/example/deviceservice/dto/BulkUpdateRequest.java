@@ -0,0 +1,12 @@
+package com.example.deviceservice.dto;
+
+import java.util.List;
+
+/**
+ * Bulk rename or rebrand of the devices selected either by id or by brand.
+ *
+ * @param ids   the IDs of the devices to update, or {@code null} when selecting by brand
+ * @param brand the current brand of the devices to update, or {@code null} when selecting by id
+ * @param set   the fields to change; {@code null} fields are kept
+ */
+public record BulkUpdateRequest(List<Long> ids, String brand, DeviceDto set) { }
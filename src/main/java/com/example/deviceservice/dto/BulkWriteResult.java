@@ -0,0 +1,11 @@
+package com.example.deviceservice.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk update or delete.
+ *
+ * @param affected the number of devices updated or deleted
+ * @param notFound the requested IDs that matched no device, in request order; always empty when selecting by brand
+ */
+public record BulkWriteResult(int affected, List<Long> notFound) { }
@@ -0,0 +1,13 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.DeviceChange;
+
+import java.util.List;
+
+/**
+ * One page of the device change feed.
+ *
+ * @param changes the changes on this page, ordered by sequence number
+ * @param next    the sequence number to pass as {@code since} for the following page
+ */
+public record DeviceChangePage(List<DeviceChange> changes, long next) { }
@@ -0,0 +1,13 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated device listing.
+ *
+ * @param items      the devices on this page, ordered by id
+ * @param nextCursor the opaque cursor to pass for the next page, {@code null} on the last page
+ */
+public record DeviceCursorPage(List<Device> items, String nextCursor) { }
@@ -0,0 +1,15 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+
+import java.util.List;
+
+/**
+ * One page of an offset-paginated device search.
+ *
+ * @param items   the devices on this page
+ * @param page    the zero-based page number
+ * @param size    the requested page size
+ * @param hasNext whether another page follows
+ */
+public record DevicePage(List<Device> items, int page, int size, boolean hasNext) { }
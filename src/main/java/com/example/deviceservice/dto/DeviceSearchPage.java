@@ -0,0 +1,24 @@
+package com.example.deviceservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a ranked device name and brand search.
+ *
+ * @param items the matching devices on this page, best match first
+ * @param page  the zero-based page number
+ * @param size  the requested page size
+ * @param total the number of matching devices
+ */
+public record DeviceSearchPage(List<Hit> items, int page, int size, long total) {
+
+    /**
+     * @param id           the device id
+     * @param name         the device name
+     * @param brand        the device brand
+     * @param creationTime when the device was created
+     * @param score        the share of the query found in the name and brand, from 0 to 1
+     */
+    public record Hit(Long id, String name, String brand, LocalDateTime creationTime, double score) { }
+}
@@ -0,0 +1,33 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version and last modification time of a device, from which its validators are derived.
+ *
+ * @param version      the device version
+ * @param lastModified when the device was last written
+ */
+public record DeviceStamp(Long version, LocalDateTime lastModified) {
+
+    public static DeviceStamp of(Device device) {
+        return new DeviceStamp(device.getVersion(), device.getLastModified());
+    }
+
+    /**
+     * @return the strong entity tag of the device, or {@code null} if its version is unknown
+     */
+    public String etag() {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * @return the last modification time in epoch milliseconds, or -1 if unknown
+     */
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
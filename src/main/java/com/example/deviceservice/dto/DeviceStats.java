@@ -0,0 +1,30 @@
+package com.example.deviceservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fleet statistics served from the in-memory device aggregate.
+ *
+ * @param total         the number of devices
+ * @param brands        the number of devices per brand, ordered by brand
+ * @param topBrands     the brands with the most devices, most first
+ * @param bucketSeconds the width of the creation-time buckets, in seconds
+ * @param created       the number of devices created per bucket, oldest first; empty buckets are omitted
+ */
+public record DeviceStats(long total, Map<String, Long> brands, List<BrandCount> topBrands, long bucketSeconds,
+                          List<CreationBucket> created) {
+
+    /**
+     * @param brand the brand
+     * @param count the number of devices with the brand
+     */
+    public record BrandCount(String brand, long count) { }
+
+    /**
+     * @param start when the bucket starts
+     * @param count the number of devices created in the bucket
+     */
+    public record CreationBucket(LocalDateTime start, long count) { }
+}
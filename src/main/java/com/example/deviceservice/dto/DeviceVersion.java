@@ -0,0 +1,10 @@
+package com.example.deviceservice.dto;
+
+/**
+ * Version of a device, read back after an update to order the updates applied to in-memory views.
+ *
+ * @param id      the device id
+ * @param version the device version
+ */
+public record DeviceVersion(Long id, Long version) {
+}
@@ -0,0 +1,26 @@
+package com.example.deviceservice.dto;
+
+import com.example.deviceservice.model.Device;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Read-only projection of a device, selected column by column instead of loading a managed entity.
+ * Serialized through the {@value #FILTER} filter, so responses can be limited to some of {@link #FIELDS}.
+ *
+ * @param id           the device id
+ * @param name         the device name
+ * @param brand        the device brand
+ * @param creationTime when the device was created
+ */
+@JsonFilter(DeviceView.FILTER)
+public record DeviceView(Long id, String name, String brand, LocalDateTime creationTime) {
+    public static final String FILTER = "deviceView";
+    public static final Set<String> FIELDS = Set.of("id", "name", "brand", "creationTime");
+
+    public static DeviceView of(Device device) {
+        return new DeviceView(device.getId(), device.getName(), device.getBrand(), device.getCreationTime());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.deviceservice.exception;
+
+/**
+ * Custom exception thrown when a change feed position is no longer, or was never, covered by the outbox.
+ */
+public class ChangeFeedExpiredException extends RuntimeException {
+    public ChangeFeedExpiredException(long since, long oldest, long latest) {
+        super("Changes since " + since + " are not available (retained: " + oldest + " to " + latest
+                + "); resynchronize from /devices/page");
+    }
+}
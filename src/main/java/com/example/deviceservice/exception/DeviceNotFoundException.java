@@ -1,10 +1,19 @@
 package com.example.deviceservice.exception;
 
+import lombok.Getter;
+
 /**
  * Custom exception thrown when a device is not found.
+ * A miss is an expected outcome of a lookup rather than a fault, so the exception carries no
+ * stack trace and no suppressed exceptions, and costs little more than the response it becomes.
  */
+@Getter
 public class DeviceNotFoundException extends RuntimeException {
+
+    private final Long id;
+
     public DeviceNotFoundException(Long id) {
-        super("Device not found with id: " + id);
+        super("Device not found with id: " + id, null, false, false);
+        this.id = id;
     }
 }
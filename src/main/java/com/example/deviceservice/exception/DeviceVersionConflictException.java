@@ -0,0 +1,10 @@
+package com.example.deviceservice.exception;
+
+/**
+ * Custom exception thrown when a device no longer has the version a conditional request expects.
+ */
+public class DeviceVersionConflictException extends RuntimeException {
+    public DeviceVersionConflictException(Long id, Long expectedVersion) {
+        super("Device with id: " + id + " is no longer at version " + expectedVersion);
+    }
+}
@@ -1,50 +1,183 @@
 package com.example.deviceservice.exception;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.stream.Collectors;
 
 /**
  * Global exception handler for handling exceptions and returning appropriate HTTP responses.
+ * Errors are returned as RFC 7807 problem details, served as {@code application/problem+json}.
+ * Errors raised by Spring MVC itself, such as a body that fails validation or cannot be read, a missing or
+ * malformed parameter, an unknown path or an unsupported method, are answered by
+ * {@link ResponseEntityExceptionHandler} with their own 4xx status.
+ * Every handled exception is counted in the {@code device.errors} metric, tagged by exception type and status.
  */
 @Slf4j
 @RestControllerAdvice
-public class GlobalExceptionHandler {
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     /**
      * Handles DeviceNotFoundException and returns a 404 response.
      *
      * @param ex the exception
-     * @return the response entity with the error message and HTTP status 404
+     * @return the problem details with the error message and HTTP status 404
      */
     @ExceptionHandler(DeviceNotFoundException.class)
-    public ResponseEntity<String> handleDeviceNotFoundException(DeviceNotFoundException ex) {
-        log.error("Device Not Found Exception");
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    public ResponseEntity<ProblemDetail> handleDeviceNotFoundException(DeviceNotFoundException ex) {
+        log.debug("Device Not Found: {}", ex.getId());
+        countError(ex, HttpStatus.NOT_FOUND);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        problem.setProperty("id", ex.getId());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(problem);
+    }
+
+    /**
+     * Handles DeviceVersionConflictException and returns a 412 response, as the version came from If-Match.
+     *
+     * @param ex the exception
+     * @return the problem details with the error message and HTTP status 412
+     */
+    @ExceptionHandler(DeviceVersionConflictException.class)
+    public ResponseEntity<ProblemDetail> handleDeviceVersionConflictException(DeviceVersionConflictException ex) {
+        log.warn("Device Version Conflict");
+        countError(ex, HttpStatus.PRECONDITION_FAILED);
+        return problem(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidDeviceRequestException and returns a 400 response.
+     *
+     * @param ex the exception
+     * @return the problem details with the error message and HTTP status 400
+     */
+    @ExceptionHandler(InvalidDeviceRequestException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidDeviceRequestException(InvalidDeviceRequestException ex) {
+        log.debug("Invalid Device Request: {}", ex.getMessage());
+        countError(ex, HttpStatus.BAD_REQUEST);
+        return problem(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles ChangeFeedExpiredException and returns a 410 response, telling the consumer to resynchronize.
+     *
+     * @param ex the exception
+     * @return the problem details with the error message and HTTP status 410
+     */
+    @ExceptionHandler(ChangeFeedExpiredException.class)
+    public ResponseEntity<ProblemDetail> handleChangeFeedExpiredException(ChangeFeedExpiredException ex) {
+        log.warn("Change Feed Position Expired");
+        countError(ex, HttpStatus.GONE);
+        return problem(HttpStatus.GONE, ex.getMessage());
+    }
+
+    /**
+     * Handles WriteBehindQueueFullException and returns a 503 response asking the client to retry.
+     *
+     * @param ex the exception
+     * @return the problem details with the error message and HTTP status 503
+     */
+    @ExceptionHandler(WriteBehindQueueFullException.class)
+    public ResponseEntity<ProblemDetail> handleWriteBehindQueueFullException(WriteBehindQueueFullException ex) {
+        log.warn("Write-behind queue full");
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    /**
+     * Handles RequestThrottledException and returns a 429 response telling the client when to retry.
+     *
+     * @param ex the exception
+     * @return the problem details with the error message and HTTP status 429
+     */
+    @ExceptionHandler(RequestThrottledException.class)
+    public ResponseEntity<ProblemDetail> handleRequestThrottledException(RequestThrottledException ex) {
+        log.debug("Request shed: {}", ex.getMessage());
+        countError(ex, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
     }
 
     /**
      * Handles DeviceServiceException and returns a 500 response.
      *
      * @param ex the exception
-     * @return the response entity with the error message and HTTP status 500
+     * @return the problem details with the error message and HTTP status 500
      */
     @ExceptionHandler(DeviceServiceException.class)
-    public ResponseEntity<String> handleDeviceServiceException(DeviceServiceException ex) {
+    public ResponseEntity<ProblemDetail> handleDeviceServiceException(DeviceServiceException ex) {
         log.error("Internal Error - Device Service Exception");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
     }
 
     /**
      * Handles generic exceptions and returns a 500 response.
      *
      * @param ex the exception
-     * @return the response entity with the error message and HTTP status 500
+     * @return the problem details with the error message and HTTP status 500
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleException(Exception ex) {
-        log.error("Internal Error");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+    public ResponseEntity<ProblemDetail> handleException(Exception ex) {
+        log.error("Internal Error", ex);
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+    }
+
+    /**
+     * Reports the messages of the failed constraints as the detail, like the per-item errors of bulk creation.
+     */
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
+                                                                  HttpHeaders headers, HttpStatusCode status,
+                                                                  WebRequest request) {
+        ex.getBody().setDetail(ex.getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        return handleExceptionInternal(ex, null, headers, status, request);
+    }
+
+    /**
+     * Counts and logs the errors answered by {@link ResponseEntityExceptionHandler}; they are client errors,
+     * except for the few it maps to 5xx.
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        if (statusCode.is5xxServerError()) {
+            log.warn("Request failed: {}", ex.getMessage());
+        } else {
+            log.debug("Invalid request: {}", ex.getMessage());
+        }
+        countError(ex, statusCode);
+        return super.handleExceptionInternal(ex, body, headers, statusCode, request);
+    }
+
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, String detail) {
+        return ResponseEntity.status(status).body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+
+    private void countError(Exception ex, HttpStatusCode status) {
+        meterRegistry.counter("device.errors",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
     }
 }
@@ -0,0 +1,10 @@
+package com.example.deviceservice.exception;
+
+/**
+ * Custom exception thrown when request parameters such as a cursor or page size are invalid.
+ */
+public class InvalidDeviceRequestException extends RuntimeException {
+    public InvalidDeviceRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.deviceservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Custom exception thrown when a request is shed by the rate limiter, either because the client
+ * exhausted its request budget for the endpoint or because the endpoint is at its concurrency limit.
+ * Shedding happens under load, so the exception carries no stack trace.
+ */
+@Getter
+public class RequestThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RequestThrottledException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
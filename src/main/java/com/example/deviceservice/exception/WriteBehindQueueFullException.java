@@ -0,0 +1,11 @@
+package com.example.deviceservice.exception;
+
+/**
+ * Custom exception thrown when the write-behind queue cannot accept another device in time,
+ * or does not write a queued device in time for a statement that needs its row.
+ */
+public class WriteBehindQueueFullException extends RuntimeException {
+    public WriteBehindQueueFullException(String message) {
+        super(message);
+    }
+}
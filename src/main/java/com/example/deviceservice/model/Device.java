@@ -1,25 +1,45 @@
 package com.example.deviceservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
+@Table(name = "device", indexes = {
+        @Index(name = "idx_device_brand", columnList = "brand, id"),
+        @Index(name = "idx_device_brand_normalized", columnList = "brand_normalized, id"),
+        @Index(name = "idx_device_name", columnList = "name"),
+        @Index(name = "idx_device_creation_time", columnList = "creation_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Device {
 
+    /**
+     * Pooled sequence rather than IDENTITY so Hibernate can assign ids ahead of
+     * the INSERT and group statements into JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -27,4 +47,41 @@ public class Device {
 
     @CreationTimestamp
     private LocalDateTime creationTime;
+
+    /**
+     * Lower-cased copy of {@link #brand}, kept in sync on every write so that case-insensitive
+     * and prefix searches can use an index instead of {@code lower(brand)}.
+     */
+    @JsonIgnore
+    private String brandNormalized;
+
+    /**
+     * Incremented on every write; served as the ETag and checked against {@code If-Match}.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    private LocalDateTime lastModified;
+
+    public Device(Long id, String name, String brand, LocalDateTime creationTime) {
+        this(id, name, brand, creationTime, normalize(brand), null, null);
+    }
+
+    /**
+     * Normalizes a brand for case-insensitive matching.
+     *
+     * @param brand the brand as entered, may be {@code null}
+     * @return the normalized brand
+     */
+    public static String normalize(String brand) {
+        return brand == null ? null : brand.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeBrand() {
+        brandNormalized = normalize(brand);
+    }
 }
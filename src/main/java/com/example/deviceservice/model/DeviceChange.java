@@ -0,0 +1,67 @@
+package com.example.deviceservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox entry recording one device mutation, written in the transaction of the mutation itself.
+ * Rows are appended with JDBC by {@code DeviceChangeFeed}; the mapping is used to read them back.
+ */
+@Entity
+@Table(name = "device_change", indexes = {
+        @Index(name = "idx_device_change_occurred_at", columnList = "occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeviceChange {
+
+    /**
+     * Position in the feed. The generator only declares {@code device_change_seq}; numbers are
+     * taken from it by {@code DeviceChangeFeed}.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_change_seq")
+    @SequenceGenerator(name = "device_change_seq", sequenceName = "device_change_seq", allocationSize = 1)
+    private Long seq;
+
+    private Long deviceId;
+
+    /**
+     * Stored as plain text, as declared by the migration, rather than as a native enum column.
+     */
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private Type type;
+
+    /**
+     * State of the device after the change; {@code null} for deletions.
+     */
+    private String name;
+    private String brand;
+    private Long version;
+
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
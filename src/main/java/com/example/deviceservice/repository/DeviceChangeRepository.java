@@ -0,0 +1,48 @@
+package com.example.deviceservice.repository;
+
+import com.example.deviceservice.model.DeviceChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read access to the {@link DeviceChange} outbox.
+ */
+@Repository
+public interface DeviceChangeRepository extends JpaRepository<DeviceChange, Long> {
+
+    /**
+     * Finds the changes in a range of sequence numbers, in feed order.
+     *
+     * @param from the first sequence number, inclusive
+     * @param to the last sequence number, inclusive
+     * @param limit the maximum number of changes to return
+     * @return the changes
+     */
+    List<DeviceChange> findBySeqBetweenOrderBySeqAsc(long from, long to, Limit limit);
+
+    /**
+     * @return the highest retained sequence number, or {@code null} if the outbox is empty
+     */
+    @Query("select max(c.seq) from DeviceChange c")
+    Long findMaxSeq();
+
+    /**
+     * @return the lowest retained sequence number, or {@code null} if the outbox is empty
+     */
+    @Query("select min(c.seq) from DeviceChange c")
+    Long findMinSeq();
+
+    /**
+     * Finds the newest change that happened before the given time.
+     *
+     * @param cutoff the time before which changes are looked for
+     * @return the highest sequence number among those changes, or {@code null} if there are none
+     */
+    @Query("select max(c.seq) from DeviceChange c where c.occurredAt < :cutoff")
+    Long findMaxSeqOccurredBefore(LocalDateTime cutoff);
+}
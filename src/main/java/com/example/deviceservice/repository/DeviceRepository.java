@@ -1,10 +1,26 @@
 package com.example.deviceservice.repository;
 
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.model.Device;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for {@link Device} entities.
@@ -12,6 +28,9 @@ import java.util.List;
  */
 @Repository
 public interface DeviceRepository extends JpaRepository<Device, Long> {
+    String SELECT_VIEW = "select new com.example.deviceservice.dto.DeviceView(d.id, d.name, d.brand, d.creationTime) "
+            + "from Device d";
+
     /**
      * Finds devices by their brand.
      *
@@ -19,4 +38,256 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
      * @return a list of devices with the specified brand
      */
     List<Device> findByBrand(String brand);
+
+    /**
+     * Finds one page of devices with exactly the given brand.
+     *
+     * @param brand the brand of the devices to find
+     * @param pageable the page and sort to apply
+     * @return the page of devices, without a total count
+     */
+    Slice<Device> findByBrand(String brand, Pageable pageable);
+
+    /**
+     * Finds one page of devices whose brand starts with the given prefix.
+     *
+     * @param prefix the brand prefix, matched case-sensitively
+     * @param pageable the page and sort to apply
+     * @return the page of devices, without a total count
+     */
+    Slice<Device> findByBrandStartingWith(String prefix, Pageable pageable);
+
+    /**
+     * Finds one page of devices by their normalized brand, see {@link Device#normalize(String)}.
+     *
+     * @param brandNormalized the normalized brand
+     * @param pageable the page and sort to apply
+     * @return the page of devices, without a total count
+     */
+    Slice<Device> findByBrandNormalized(String brandNormalized, Pageable pageable);
+
+    /**
+     * Finds one page of devices whose normalized brand starts with the given normalized prefix.
+     *
+     * @param prefix the normalized brand prefix
+     * @param pageable the page and sort to apply
+     * @return the page of devices, without a total count
+     */
+    Slice<Device> findByBrandNormalizedStartingWith(String prefix, Pageable pageable);
+
+    /**
+     * Finds the devices following the given id, ordered by id.
+     * Used for keyset pagination, which stays as cheap on the last page as on the first.
+     *
+     * @param id    the id of the last device of the previous page
+     * @param limit the maximum number of devices to return
+     * @return the devices with an id greater than {@code id}
+     */
+    List<Device> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Finds the devices created in the given range that follow the given position, ordered by creation time
+     * then id, using the creation time index. Used for keyset pagination over a creation-time range.
+     *
+     * @param from the earliest creation time, inclusive; also the creation time of the last device of the previous page
+     * @param to the latest creation time, exclusive
+     * @param afterId the id of the last device of the previous page created at {@code from}, 0 for the first page
+     * @param limit the maximum number of devices to return
+     * @return the devices
+     */
+    @Query("select d from Device d where d.creationTime >= :from and d.creationTime < :to "
+            + "and (d.creationTime > :from or d.id > :afterId) order by d.creationTime, d.id")
+    List<Device> findCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, Limit limit);
+
+    /**
+     * Streams the devices created in the given range, ordered by creation time then id, without
+     * materializing the result list. Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param from the earliest creation time, inclusive
+     * @param to the latest creation time, exclusive
+     * @return a stream over the devices
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from Device d where d.creationTime >= :from and d.creationTime < :to "
+            + "order by d.creationTime, d.id")
+    Stream<Device> streamCreatedBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds which of the given ids belong to existing devices.
+     *
+     * @param ids the IDs to look up
+     * @return the IDs of the existing devices, ordered by id
+     */
+    @Query("select d.id from Device d where d.id in :ids order by d.id")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Finds the ids of the devices with the given brand that follow the given id, ordered by id.
+     * Used to walk a brand in chunks.
+     *
+     * @param brand the brand of the devices
+     * @param id the id of the last device of the previous chunk
+     * @param limit the maximum number of ids to return
+     * @return the device IDs
+     */
+    @Query("select d.id from Device d where d.brand = :brand and d.id > :id order by d.id")
+    List<Long> findIdsByBrand(String brand, Long id, Limit limit);
+
+    /**
+     * Streams all devices ordered by id without materializing the result list.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream over all devices
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from Device d order by d.id")
+    Stream<Device> streamAllOrderById();
+
+    /**
+     * Finds the projection of a device by its ID, without loading the entity.
+     *
+     * @param id the ID of the device to find
+     * @return the device projection, or empty if the device does not exist
+     */
+    @Query(SELECT_VIEW + " where d.id = :id")
+    Optional<DeviceView> findViewById(Long id);
+
+    /**
+     * Finds the projections of all devices ordered by id, without loading entities.
+     *
+     * @return the device projections
+     */
+    @Query(SELECT_VIEW + " order by d.id")
+    List<DeviceView> findAllViews();
+
+    /**
+     * Streams the projections of all devices ordered by id, without loading entities or
+     * materializing the result list. Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream over the device projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_VIEW + " order by d.id")
+    Stream<DeviceView> streamAllViews();
+
+    /**
+     * Finds the projections of the devices with the given brand ordered by id, without loading entities.
+     *
+     * @param brand the brand of the devices to find
+     * @return the device projections
+     */
+    @Query(SELECT_VIEW + " where d.brand = :brand order by d.id")
+    List<DeviceView> findViewsByBrand(String brand);
+
+    /**
+     * Finds the version and last modification time of a device, without loading the entity.
+     *
+     * @param id the ID of the device
+     * @return the stamp, or empty if the device does not exist
+     */
+    @Query("select new com.example.deviceservice.dto.DeviceStamp(d.version, d.lastModified) from Device d where d.id = :id")
+    Optional<DeviceStamp> findStampById(Long id);
+
+    /**
+     * Finds the versions of the given devices, without loading entities.
+     *
+     * @param ids the IDs of the devices
+     * @return the versions of the existing devices, ordered by id
+     */
+    @Query("select new com.example.deviceservice.dto.DeviceVersion(d.id, d.version) from Device d "
+            + "where d.id in :ids order by d.id")
+    List<DeviceVersion> findVersionsByIds(Collection<Long> ids);
+
+    /**
+     * Summarizes the devices of a brand so that any insert, update or delete among them changes the result.
+     *
+     * @param brand the brand of the devices
+     * @return the stamp of the brand, with a count of 0 if it has no devices
+     */
+    @Query("select new com.example.deviceservice.dto.BrandStamp(count(d), max(d.id), sum(d.version), max(d.lastModified)) "
+            + "from Device d where d.brand = :brand")
+    BrandStamp findBrandStamp(String brand);
+
+    /**
+     * Overwrites the name and brand of a device in a single statement, incrementing its version.
+     *
+     * @param id the ID of the device to update
+     * @param name the new name
+     * @param brand the new brand
+     * @param brandNormalized the normalized new brand, see {@link Device#normalize(String)}
+     * @param version the version the device must have, or {@code null} to update any version
+     * @param lastModified the modification time to record
+     * @return the number of updated rows, 0 if the device does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set d.name = :name, d.brand = :brand, d.brandNormalized = :brandNormalized, "
+            + "d.version = d.version + 1, d.lastModified = :lastModified "
+            + "where d.id = :id and (:version is null or d.version = :version)")
+    int updateNameAndBrand(Long id, String name, String brand, String brandNormalized,
+                           Long version, LocalDateTime lastModified);
+
+    /**
+     * Changes the non-null fields among name and brand of a device in a single statement, incrementing its version.
+     *
+     * @param id the ID of the device to update
+     * @param name the new name, or {@code null} to keep the current one
+     * @param brand the new brand, or {@code null} to keep the current one
+     * @param brandNormalized the normalized new brand, or {@code null} to keep the current one
+     * @param version the version the device must have, or {@code null} to update any version
+     * @param lastModified the modification time to record
+     * @return the number of updated rows, 0 if the device does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set d.name = coalesce(:name, d.name), d.brand = coalesce(:brand, d.brand), "
+            + "d.brandNormalized = coalesce(:brandNormalized, d.brandNormalized), "
+            + "d.version = d.version + 1, d.lastModified = :lastModified "
+            + "where d.id = :id and (:version is null or d.version = :version)")
+    int patchNameAndBrand(Long id, String name, String brand, String brandNormalized,
+                          Long version, LocalDateTime lastModified);
+
+    /**
+     * Changes the non-null fields among name and brand of several devices in a single statement,
+     * incrementing their versions.
+     *
+     * @param ids the IDs of the devices to update
+     * @param name the new name, or {@code null} to keep the current ones
+     * @param brand the new brand, or {@code null} to keep the current ones
+     * @param brandNormalized the normalized new brand, or {@code null} to keep the current ones
+     * @param lastModified the modification time to record
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set d.name = coalesce(:name, d.name), d.brand = coalesce(:brand, d.brand), "
+            + "d.brandNormalized = coalesce(:brandNormalized, d.brandNormalized), "
+            + "d.version = d.version + 1, d.lastModified = :lastModified "
+            + "where d.id in :ids")
+    int patchNameAndBrandByIds(Collection<Long> ids, String name, String brand, String brandNormalized,
+                               LocalDateTime lastModified);
+
+    /**
+     * Deletes several devices in a single statement.
+     *
+     * @param ids the IDs of the devices to delete
+     * @return the number of deleted rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Device d where d.id in :ids")
+    int deleteDevicesByIds(Collection<Long> ids);
+
+    /**
+     * Deletes a device in a single statement.
+     *
+     * @param id the ID of the device to delete
+     * @param version the version the device must have, or {@code null} to delete any version
+     * @return the number of deleted rows, 0 if the device does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Device d where d.id = :id and (:version is null or d.version = :version)")
+    int deleteDeviceById(Long id, Long version);
 }
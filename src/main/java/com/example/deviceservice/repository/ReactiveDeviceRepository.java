@@ -0,0 +1,72 @@
+package com.example.deviceservice.repository;
+
+import com.example.deviceservice.model.Device;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking read access to {@link Device} rows over R2DBC, used by the reactive API.
+ * Results are emitted as they are fetched and only as fast as the subscriber requests them.
+ */
+@Repository
+public class ReactiveDeviceRepository {
+    // Every mapped column, so devices read here are the same as those loaded through JPA
+    private static final String SELECT_DEVICE =
+            "select id, name, brand, brand_normalized, creation_time, version, last_modified from device";
+    private static final int FETCH_SIZE = 500;
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    /**
+     * Finds a device by its ID.
+     *
+     * @param id the ID of the device to find
+     * @return the device, or an empty mono if it does not exist
+     */
+    public Mono<Device> findById(Long id) {
+        return reactiveDatabaseClient.sql(SELECT_DEVICE + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveDeviceRepository::toDevice)
+                .one();
+    }
+
+    /**
+     * Finds all devices ordered by id.
+     *
+     * @return the devices
+     */
+    public Flux<Device> findAll() {
+        return reactiveDatabaseClient.sql(SELECT_DEVICE + " order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveDeviceRepository::toDevice)
+                .all();
+    }
+
+    /**
+     * Finds devices by their brand, ordered by id.
+     *
+     * @param brand the brand of the devices to find
+     * @return the devices with the specified brand
+     */
+    public Flux<Device> findByBrand(String brand) {
+        return reactiveDatabaseClient.sql(SELECT_DEVICE + " where brand = :brand order by id")
+                .bind("brand", brand)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveDeviceRepository::toDevice)
+                .all();
+    }
+
+    private static Device toDevice(Readable row) {
+        return new Device(row.get("id", Long.class), row.get("name", String.class),
+                row.get("brand", String.class), row.get("creation_time", LocalDateTime.class),
+                row.get("brand_normalized", String.class), row.get("version", Long.class),
+                row.get("last_modified", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.model.Device;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Defers the updates of the in-memory views of the device table, {@link DeviceStatistics} and
+ * {@link DeviceSearchIndex}, until the writing transaction commits, so a rolled back write is never applied.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the update once the current transaction commits, or right away outside a transaction.
+     */
+    static void run(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * Copies created devices for a deferred update. The devices must have been flushed, so that
+     * values generated on insert are the ones copied.
+     */
+    static List<DeviceView> views(List<Device> created) {
+        // Copied now: callers reuse their list for the next chunk
+        return created.stream().map(DeviceView::of).toList();
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceChangePage;
+import com.example.deviceservice.exception.ChangeFeedExpiredException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.model.DeviceChange;
+import com.example.deviceservice.repository.DeviceChangeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox of device mutations, read by downstream consumers as an incremental feed.
+ * <p>
+ * Every create, update and delete appends a {@link DeviceChange} in the transaction that performs it,
+ * so a change is visible exactly when the mutation is. Sequence numbers come from
+ * {@code device_change_seq}; a number is only served once every lower number taken by this instance
+ * has committed or rolled back, so a consumer that resumes from the last number it saw never skips
+ * a change committed late.
+ * <p>
+ * Entries older than {@code device.changes.retention}, or beyond the newest
+ * {@code device.changes.max-entries}, are compacted away; positions before that replay window are
+ * answered with {@link ChangeFeedExpiredException}.
+ */
+@Service
+@Slf4j
+public class DeviceChangeFeed {
+    private static final String INSERT_CHANGE = "insert into device_change "
+            + "(seq, device_id, type, name, brand, version, occurred_at) values (?, ?, ?, ?, ?, ?, ?)";
+    // Copies the state left by the statement that just ran, so updates need not read the device back
+    private static final String INSERT_CURRENT_STATE = "insert into device_change "
+            + "(seq, device_id, type, name, brand, version, occurred_at) "
+            + "select ?, id, ?, name, brand, version, ? from device where id = ?";
+    private static final String NEXT_SEQS = "select next value for device_change_seq from system_range(1, ?)";
+    private static final String DELETE_THROUGH = "delete from device_change where seq <= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeviceChangeRepository changeRepository;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${device.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${device.changes.retention:24h}")
+    private Duration retention;
+
+    @Value("${device.changes.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${device.changes.max-wait:30s}")
+    private Duration maxWait;
+
+    private final Object sequenceLock = new Object();
+    // Guarded by sequenceLock: the numbers taken by transactions that have not completed yet
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    private volatile long latestSeq;
+    private volatile long compactedThrough;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private record Waiter(long since, int limit, CompletableFuture<DeviceChangePage> result) { }
+
+    @PostConstruct
+    void init() {
+        Long max = changeRepository.findMaxSeq();
+        Long min = changeRepository.findMinSeq();
+        latestSeq = max == null ? 0 : max;
+        compactedThrough = min == null ? latestSeq : min - 1;
+    }
+
+    /**
+     * Appends the creation of devices to the outbox.
+     *
+     * @param devices the created devices, with their ids assigned
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<Device> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        List<Long> seqs = reserve(devices.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(devices.size());
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            rows.add(new Object[]{seqs.get(i), device.getId(), DeviceChange.Type.CREATED.name(), device.getName(),
+                    device.getBrand(), device.getVersion() == null ? 0L : device.getVersion(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    /**
+     * Appends the update of a device to the outbox, with the state it has now in the current transaction.
+     *
+     * @param id the ID of the updated device
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(Long id) {
+        jdbcTemplate.update(INSERT_CURRENT_STATE, reserve(1).get(0), DeviceChange.Type.UPDATED.name(),
+                LocalDateTime.now(), id);
+    }
+
+    /**
+     * Appends the update of several devices to the outbox in one JDBC batch, each with the state it has
+     * now in the current transaction. Devices that no longer exist are skipped.
+     *
+     * @param ids the IDs of the updated devices
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> seqs = reserve(ids.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[]{seqs.get(i), DeviceChange.Type.UPDATED.name(), now, ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CURRENT_STATE, rows);
+    }
+
+    /**
+     * Appends the deletion of a device to the outbox.
+     *
+     * @param id the ID of the deleted device
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long id) {
+        jdbcTemplate.update(INSERT_CHANGE, reserve(1).get(0), id, DeviceChange.Type.DELETED.name(), null, null, null,
+                LocalDateTime.now());
+    }
+
+    /**
+     * Appends the deletion of several devices to the outbox in one JDBC batch.
+     *
+     * @param ids the IDs of the deleted devices
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> seqs = reserve(ids.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[]{seqs.get(i), ids.get(i), DeviceChange.Type.DELETED.name(), null, null, null, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    private List<Long> reserve(int count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Device changes must be recorded in a transaction");
+        }
+        List<Long> seqs;
+        // Taken and registered atomically, so no reader sees a number beyond one still in flight
+        synchronized (sequenceLock) {
+            seqs = jdbcTemplate.queryForList(NEXT_SEQS, Long.class, count).stream().sorted().toList();
+            inFlight.addAll(seqs);
+            latestSeq = Math.max(latestSeq, seqs.get(seqs.size() - 1));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (sequenceLock) {
+                    seqs.forEach(inFlight::remove);
+                }
+                if (status == STATUS_COMMITTED) {
+                    wakeWaiters();
+                }
+            }
+        });
+        return seqs;
+    }
+
+    private long visibleThrough() {
+        synchronized (sequenceLock) {
+            return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first() - 1;
+        }
+    }
+
+    /**
+     * @return the position from which every retained change is replayed
+     */
+    public long replayStart() {
+        return compactedThrough;
+    }
+
+    /**
+     * Reads the changes after a position in the feed.
+     *
+     * @param since the last sequence number already consumed, see {@link #replayStart()}
+     * @param limit the maximum number of changes to return
+     * @return the changes, possibly none, and the position to continue from
+     * @throws ChangeFeedExpiredException if changes after {@code since} have been compacted away, or
+     *                                    {@code since} is ahead of the feed
+     * @throws InvalidDeviceRequestException if the limit is out of range
+     */
+    public DeviceChangePage findChanges(long since, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidDeviceRequestException("Limit must be between 1 and " + maxPageSize);
+        }
+        checkRetained(since);
+        long through = visibleThrough();
+        if (since >= through) {
+            return new DeviceChangePage(List.of(), since);
+        }
+        List<DeviceChange> changes =
+                changeRepository.findBySeqBetweenOrderBySeqAsc(since + 1, through, Limit.of(limit));
+        // Compaction may have run while reading
+        checkRetained(since);
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new DeviceChangePage(changes, next);
+    }
+
+    private void checkRetained(long since) {
+        if (since > latestSeq) {
+            // Possibly written by another instance; otherwise the database was reset under the consumer
+            Long max = changeRepository.findMaxSeq();
+            latestSeq = Math.max(latestSeq, max == null ? 0 : max);
+        }
+        if (since < compactedThrough || since > latestSeq) {
+            throw new ChangeFeedExpiredException(since, compactedThrough + 1, latestSeq);
+        }
+    }
+
+    /**
+     * Reads the changes after a position in the feed, waiting for the next commit if there are none yet.
+     *
+     * @param since the last sequence number already consumed, see {@link #replayStart()}
+     * @param limit the maximum number of changes to return
+     * @param wait how long to wait for a change, capped at {@code device.changes.max-wait}
+     * @return the changes, completed with an empty page if none arrived in time
+     * @throws ChangeFeedExpiredException if changes after {@code since} have been compacted away, or
+     *                                    {@code since} is ahead of the feed
+     * @throws InvalidDeviceRequestException if the limit is out of range
+     */
+    public CompletableFuture<DeviceChangePage> awaitChanges(long since, int limit, Duration wait) {
+        DeviceChangePage page = findChanges(since, limit);
+        if (!page.changes().isEmpty() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        long timeout = Math.min(wait.toMillis(), maxWait.toMillis());
+        Waiter waiter = new Waiter(since, limit, new CompletableFuture<>());
+        waiter.result()
+                .completeOnTimeout(page, timeout, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // A commit between the first read and the registration would not have woken this waiter
+        serve(waiter);
+        return waiter.result();
+    }
+
+    private void wakeWaiters() {
+        // Waiters are served off the committing thread, which is still inside the writing request
+        if (!waiters.isEmpty()) {
+            taskExecutor.execute(() -> waiters.forEach(this::serve));
+        }
+    }
+
+    private void serve(Waiter waiter) {
+        if (waiter.result().isDone()) {
+            return;
+        }
+        try {
+            DeviceChangePage page = findChanges(waiter.since(), waiter.limit());
+            if (!page.changes().isEmpty()) {
+                waiter.result().complete(page);
+            }
+        } catch (RuntimeException e) {
+            waiter.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Deletes the entries outside the replay window. The newest entry is always kept, so that the
+     * sequence resumes after it when the application restarts on the same database.
+     */
+    @Scheduled(fixedDelayString = "${device.changes.compaction-interval:PT1M}")
+    public void compact() {
+        Long max = changeRepository.findMaxSeq();
+        if (max == null) {
+            return;
+        }
+        long latest = Math.min(max, visibleThrough());
+        Long expired = changeRepository.findMaxSeqOccurredBefore(LocalDateTime.now().minus(retention));
+        long through = Math.min(Math.max(expired == null ? 0 : expired, latest - maxEntries), latest - 1);
+        if (through <= compactedThrough) {
+            return;
+        }
+        // Published before the delete, so readers racing with it notice that their range is gone
+        compactedThrough = through;
+        int deleted = jdbcTemplate.update(DELETE_THROUGH, through);
+        log.info("Compacted {} device changes up to sequence number {}", deleted, through);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination.
+ * A cursor carries the id of the last device of the previous page, and for pages ordered by
+ * creation time also its creation time.
+ */
+final class DeviceCursor {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String CREATED_PREFIX = "created:";
+
+    /**
+     * Position of the last device of a page ordered by creation time, then id.
+     */
+    record Created(LocalDateTime creationTime, long id) { }
+
+    private DeviceCursor() {
+    }
+
+    static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((ID_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String encodeCreated(LocalDateTime creationTime, Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CREATED_PREFIX + creationTime + "/" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Created decodeCreated(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('/');
+            if (!value.startsWith(CREATED_PREFIX) || separator < 0) {
+                throw new InvalidDeviceRequestException("Invalid cursor: " + cursor);
+            }
+            return new Created(LocalDateTime.parse(value.substring(CREATED_PREFIX.length(), separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidDeviceRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(ID_PREFIX)) {
+                throw new InvalidDeviceRequestException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(value.substring(ID_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDeviceRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
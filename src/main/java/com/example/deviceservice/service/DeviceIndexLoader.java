@@ -0,0 +1,52 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.repository.DeviceRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Builds {@link DeviceStatistics} and {@link DeviceSearchIndex} at startup from a single scan of the device table.
+ * <p>
+ * Stays eager under lazy initialization (the {@code fast-startup} profile): nothing else depends on it, and
+ * both views must be complete before the first request reads them.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+class DeviceIndexLoader {
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DeviceStatistics statistics;
+
+    @Autowired
+    private DeviceSearchIndex searchIndex;
+
+    @PostConstruct
+    void load() {
+        AtomicLong loaded = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<DeviceView> views = deviceRepository.streamAllViews()) {
+                views.forEach(view -> {
+                    statistics.load(view);
+                    searchIndex.load(view);
+                    loaded.incrementAndGet();
+                });
+            }
+        });
+        log.info("Indexed {} devices for statistics and search", loaded.get());
+    }
+}
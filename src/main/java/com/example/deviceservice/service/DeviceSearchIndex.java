@@ -0,0 +1,255 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceSearchPage;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.model.Device;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index of device names and brands for partial and misspelled searches.
+ * <p>
+ * Names and brands are split into words and every word into trigrams, padded so that the start and
+ * end of a word count as well ({@code "pixel"} becomes {@code $pi pix ixe xel el$}). A device matches
+ * a query by the share of the query's trigrams it contains, so {@code "pix"} and {@code "pixle"} both
+ * find {@code "Pixel"}. Only the posting lists of the query's trigrams are read, never the whole table.
+ * <p>
+ * Like {@link DeviceStatistics}, the index is built at startup by {@link DeviceIndexLoader} and then kept
+ * current by the writes of {@link DeviceService} and {@link DeviceWriteBehindBuffer}, each applied
+ * once its transaction commits. Writes made by other instances are picked up only on restart.
+ * <p>
+ * The commit callbacks of concurrent updates run in any order. Each indexed name and brand therefore
+ * keeps the version of the update that set it, and an update never replaces a value set by a newer one.
+ */
+@Service
+public class DeviceSearchIndex {
+    // Best first; among equal coverage the closer match (fewer extra trigrams) wins, then the oldest device
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(Comparator.comparingDouble(Scored::similarity).reversed())
+            .thenComparing(Scored::id);
+
+    @Value("${device.search.min-score:0.3}")
+    private double minScore;
+
+    @Value("${device.page.max-size:1000}")
+    private int maxPageSize;
+
+    private final Map<Long, Indexed> devices = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * What the index keeps of a device: enough to answer a search without reading the table. The versions
+     * are those of the updates that set the name and the brand, 0 for values read at creation or startup.
+     */
+    private record Indexed(String name, long nameVersion, String brand, long brandVersion,
+                           LocalDateTime creationTime, Set<String> trigrams) { }
+
+    private record Scored(Long id, Indexed device, double score, double similarity) { }
+
+    /**
+     * Indexes a device read from the table by {@link DeviceIndexLoader}.
+     *
+     * @param view the device
+     */
+    void load(DeviceView view) {
+        put(view.id(), view.name(), view.brand(), view.creationTime());
+    }
+
+    /**
+     * Indexes created devices once the current transaction commits.
+     *
+     * @param created the created devices, with their ids assigned
+     */
+    public void recordCreated(List<Device> created) {
+        List<DeviceView> views = AfterCommit.views(created);
+        AfterCommit.run(() -> views.forEach(view -> put(view.id(), view.name(), view.brand(), view.creationTime())));
+    }
+
+    /**
+     * Reindexes an updated device once the current transaction commits.
+     *
+     * @param id the ID of the updated device
+     * @param version the version the update gave the device
+     * @param name the new name, or {@code null} if the name was not changed
+     * @param brand the new brand, or {@code null} if the brand was not changed
+     */
+    public void recordUpdated(Long id, long version, String name, String brand) {
+        recordUpdated(List.of(new DeviceVersion(id, version)), name, brand);
+    }
+
+    /**
+     * Reindexes updated devices once the current transaction commits.
+     *
+     * @param updated the IDs of the updated devices with the versions the update gave them
+     * @param name the new name, or {@code null} if the name was not changed
+     * @param brand the new brand, or {@code null} if the brand was not changed
+     */
+    public void recordUpdated(List<DeviceVersion> updated, String name, String brand) {
+        if (name == null && brand == null) {
+            return;
+        }
+        List<DeviceVersion> versions = List.copyOf(updated);
+        AfterCommit.run(() -> versions.forEach(device -> devices.computeIfPresent(device.id(), (id, current) -> {
+            long version = device.version();
+            boolean newName = name != null && version > current.nameVersion();
+            boolean newBrand = brand != null && version > current.brandVersion();
+            if (!newName && !newBrand) {
+                return current;
+            }
+            return reindex(id, current, newName ? name : current.name(), newName ? version : current.nameVersion(),
+                    newBrand ? brand : current.brand(), newBrand ? version : current.brandVersion(),
+                    current.creationTime());
+        })));
+    }
+
+    /**
+     * Removes a deleted device from the index once the current transaction commits.
+     *
+     * @param id the ID of the deleted device
+     */
+    public void recordDeleted(Long id) {
+        recordDeleted(List.of(id));
+    }
+
+    /**
+     * Removes deleted devices from the index once the current transaction commits.
+     *
+     * @param ids the IDs of the deleted devices
+     */
+    public void recordDeleted(List<Long> ids) {
+        List<Long> deleted = List.copyOf(ids);
+        AfterCommit.run(() -> deleted.forEach(id -> devices.computeIfPresent(id, (key, removed) -> {
+            removed.trigrams().forEach(trigram -> unpost(trigram, id));
+            return null;
+        })));
+    }
+
+    /**
+     * Searches device names and brands.
+     *
+     * @param query the words to look for, possibly partial or misspelled
+     * @param page the zero-based page number
+     * @param size the number of devices per page
+     * @return the page of matching devices, best match first
+     * @throws InvalidDeviceRequestException if the query has no letters or digits, or the page is out of range
+     */
+    public DeviceSearchPage search(String query, int page, int size) {
+        if (page < 0) {
+            throw new InvalidDeviceRequestException("Page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidDeviceRequestException("Size must be between 1 and " + maxPageSize);
+        }
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            throw new InvalidDeviceRequestException("Query must contain a letter or digit");
+        }
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        // Bounded heap of the pages up to the requested one, worst of them at the head
+        long limit = (long) (page + 1) * size;
+        PriorityQueue<Scored> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        long total = 0;
+        for (Map.Entry<Long, Integer> entry : shared.entrySet()) {
+            Indexed device = devices.get(entry.getKey());
+            double score = (double) entry.getValue() / queryTrigrams.size();
+            if (device == null || score < minScore) {
+                continue;
+            }
+            total++;
+            double similarity = 2.0 * entry.getValue() / (queryTrigrams.size() + device.trigrams().size());
+            best.add(new Scored(entry.getKey(), device, score, similarity));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<DeviceSearchPage.Hit> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Scored scored = best.poll();
+            Indexed device = scored.device();
+            ranked.add(0, new DeviceSearchPage.Hit(scored.id(), device.name(), device.brand(),
+                    device.creationTime(), scored.score()));
+        }
+        long from = (long) page * size;
+        List<DeviceSearchPage.Hit> items = from >= ranked.size() ? List.of() : ranked.subList((int) from, ranked.size());
+        return new DeviceSearchPage(List.copyOf(items), page, size, total);
+    }
+
+    private void put(Long id, String name, String brand, LocalDateTime creationTime) {
+        // Per-device serialization, so two updates of the same device cannot interleave their postings
+        devices.compute(id, (key, previous) -> reindex(id, previous, name, 0, brand, 0, creationTime));
+    }
+
+    /**
+     * Posts the trigrams of a device and unposts those it no longer has; called under the lock of its entry.
+     */
+    private Indexed reindex(Long id, Indexed previous, String name, long nameVersion, String brand,
+                            long brandVersion, LocalDateTime creationTime) {
+        Set<String> trigrams = trigrams(name);
+        trigrams.addAll(trigrams(brand));
+        if (previous != null) {
+            previous.trigrams().stream().filter(trigram -> !trigrams.contains(trigram))
+                    .forEach(trigram -> unpost(trigram, id));
+        }
+        trigrams.forEach(trigram -> post(trigram, id));
+        return new Indexed(name, nameVersion, brand, brandVersion, creationTime, Set.copyOf(trigrams));
+    }
+
+    private void post(String trigram, Long id) {
+        postings.compute(trigram, (key, ids) -> {
+            Set<Long> posted = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            posted.add(id);
+            return posted;
+        });
+    }
+
+    private void unpost(String trigram, Long id) {
+        postings.computeIfPresent(trigram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Splits text into lower-case words without accents, and the words into padded trigrams.
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "$" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -1,47 +1,227 @@
 package com.example.deviceservice.service;
 
+import com.example.deviceservice.config.CacheConfig;
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.BulkCreateResult;
+import com.example.deviceservice.dto.BulkDeleteRequest;
+import com.example.deviceservice.dto.BulkGetResult;
+import com.example.deviceservice.dto.BulkItemResult;
+import com.example.deviceservice.dto.BulkUpdateRequest;
+import com.example.deviceservice.dto.BulkWriteResult;
+import com.example.deviceservice.dto.DeviceCursorPage;
 import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DevicePage;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.exception.DeviceNotFoundException;
 import com.example.deviceservice.exception.DeviceServiceException;
+import com.example.deviceservice.exception.DeviceVersionConflictException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.exception.WriteBehindQueueFullException;
 import com.example.deviceservice.model.Device;
 import com.example.deviceservice.repository.DeviceRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for managing {@link Device} entities.
  * Provides methods for creating, retrieving, updating, and deleting devices.
+ * Lookups by id and by brand are cached (see {@link CacheConfig}); every write refreshes or
+ * evicts the entries it affects, appends to the {@link DeviceChangeFeed} in its own transaction and
+ * keeps the {@link DeviceStatistics} current.
+ * Identical lookups in flight at the same time share one query through the {@link LookupCoalescer}.
+ * Every public method is timed as {@code device.service}, tagged by method name and exception.
  */
 @Service
+@Timed(value = "device.service", histogram = true)
 public class DeviceService {
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "brand", "creationTime");
+    // Names of the coalesced lookups, see LookupCoalescer
+    private static final String FIND_BY_ID = "findById";
+    private static final String FIND_STAMP_BY_ID = "findStampById";
+    private static final String FIND_BY_BRAND = "findByBrand";
+    private static final String FIND_BRAND_STAMP = "findBrandStamp";
+
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DeviceChangeFeed changeFeed;
+
+    @Autowired
+    private DeviceStatistics statistics;
+
+    @Autowired
+    private DeviceSearchIndex searchIndex;
+
+    @Autowired
+    private LookupCoalescer coalescer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${device.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${device.page.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Present only in write-behind mode, see {@link com.example.deviceservice.config.WriteBehindConfig}.
+     */
+    @Autowired(required = false)
+    private DeviceWriteBehindBuffer writeBehindBuffer;
+
+    @Value("${device.write-behind.await-timeout:5s}")
+    private Duration writeBehindAwaitTimeout;
+
     /**
      * Creates a new device.
+     * In write-behind mode the device is only queued: it gets its id immediately and is written,
+     * together with its change feed entry, with the next batch.
      *
      * @param deviceDto the data transfer object containing the device details
      * @return the created device
+     * @throws WriteBehindQueueFullException if the device cannot be queued in write-behind mode
      * @throws DeviceServiceException if an error occurs while creating the device
      */
-
-    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.DEVICES, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, key = "#deviceDto.brand")
+    )
     public Device createDevice(DeviceDto deviceDto) {
         try {
             Device device = Device.builder()
                     .name(deviceDto.name())
                     .brand(deviceDto.brand())
                     .creationTime(LocalDateTime.now())
+                    .brandNormalized(Device.normalize(deviceDto.brand()))
                     .build();
-            return deviceRepository.save(device);
+            if (writeBehindBuffer != null) {
+                return writeBehindBuffer.submit(device);
+            }
+            // Not @Transactional, so the write-behind path does not hold a connection
+            Device created = transactionTemplate.execute(status -> {
+                // Flushed first, so the views below copy the creation time generated on insert
+                Device saved = deviceRepository.saveAndFlush(device);
+                changeFeed.recordCreated(List.of(saved));
+                statistics.recordCreated(List.of(saved));
+                searchIndex.recordCreated(List.of(saved));
+                return saved;
+            });
+            coalescer.forget(FIND_BY_BRAND, deviceDto.brand());
+            coalescer.forget(FIND_BRAND_STAMP, deviceDto.brand());
+            return created;
         } catch (Exception e) {
-            throw new DeviceServiceException("Error creating device", e);
+            throw failure("Error creating device", e);
         }
     }
 
+    /**
+     * Creates many devices in one transaction.
+     * Entries are validated one by one, so an invalid entry is reported in the result instead of
+     * failing the whole request. Valid entries are inserted in JDBC batches, and the persistence
+     * context is flushed and cleared every {@code device.bulk.chunk-size} devices to keep memory flat.
+     *
+     * @param deviceDtos the data transfer objects containing the device details
+     * @return the per-entry results, indexed by position in {@code deviceDtos}
+     * @throws DeviceServiceException if an error occurs while creating the devices
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, allEntries = true)
+    public BulkCreateResult createDevices(List<DeviceDto> deviceDtos) {
+        try {
+            List<BulkItemResult> items = new ArrayList<>(deviceDtos.size());
+            LocalDateTime now = LocalDateTime.now();
+            List<Device> pending = new ArrayList<>(bulkChunkSize);
+            for (int index = 0; index < deviceDtos.size(); index++) {
+                DeviceDto deviceDto = deviceDtos.get(index);
+                List<String> errors = validate(deviceDto);
+                if (!errors.isEmpty()) {
+                    items.add(BulkItemResult.invalid(index, errors));
+                    continue;
+                }
+                Device device = deviceRepository.save(Device.builder()
+                        .name(deviceDto.name())
+                        .brand(deviceDto.brand())
+                        .creationTime(now)
+                        .build());
+                items.add(BulkItemResult.created(index, device.getId()));
+                pending.add(device);
+                if (pending.size() == bulkChunkSize) {
+                    flushCreated(pending);
+                }
+            }
+            flushCreated(pending);
+            List<Long> created = items.stream().map(BulkItemResult::id).filter(Objects::nonNull).toList();
+            AfterCommit.run(() -> forgetLookups(created));
+            return BulkCreateResult.of(items);
+        } catch (Exception e) {
+            throw failure("Error creating devices", e);
+        }
+    }
+
+    private void flushCreated(List<Device> devices) {
+        entityManager.flush();
+        changeFeed.recordCreated(devices);
+        statistics.recordCreated(devices);
+        searchIndex.recordCreated(devices);
+        entityManager.clear();
+        devices.clear();
+    }
+
+    private List<String> validate(DeviceDto deviceDto) {
+        if (deviceDto == null) {
+            return List.of("Device must not be null");
+        }
+        return validator.validate(deviceDto).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
     /**
      * Finds a device by its ID.
      *
@@ -50,14 +230,109 @@ public class DeviceService {
      * @throws DeviceNotFoundException if the device with the specified ID is not found
      * @throws DeviceServiceException if an error occurs while retrieving the device
      */
+    @Cacheable(cacheNames = CacheConfig.DEVICES, key = "#id")
     public Device findDeviceById(Long id) {
+        return lookup(id).orElseThrow(() -> new DeviceNotFoundException(id));
+    }
+
+    /**
+     * Finds a device by its ID, reporting absence as an empty result rather than an exception,
+     * for callers that expect frequent misses. Misses are not cached, so a device created in bulk
+     * is found as soon as it commits.
+     *
+     * @param id the ID of the device to find
+     * @return the found device, or empty if it does not exist
+     * @throws DeviceServiceException if an error occurs while retrieving the device
+     */
+    @Cacheable(cacheNames = CacheConfig.DEVICES, key = "#id", unless = "#result == null")
+    public Optional<Device> findDevice(Long id) {
+        return lookup(id);
+    }
+
+    private Optional<Device> lookup(Long id) {
+        Device queued = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : null;
+        if (queued != null) {
+            return Optional.of(queued);
+        }
         try {
-            return deviceRepository.findById(id)
-                    .orElseThrow(() -> new DeviceNotFoundException(id));
-        } catch (DeviceNotFoundException e) {
-            throw e;
+            return coalescer.coalesce(FIND_BY_ID, id, () -> deviceRepository.findById(id));
+        } catch (Exception e) {
+            throw failure("Error retrieving device by ID", e);
+        }
+    }
+
+    /**
+     * Finds many devices by their IDs. Devices found in the cache, or still queued in write-behind mode,
+     * are taken from there; the others are read with one {@code IN} query per {@code device.bulk.chunk-size}
+     * IDs, instead of one query per device.
+     *
+     * @param ids the IDs of the devices to find, at most {@code device.page.max-size} distinct ones
+     * @return the found devices and the IDs that were not found, both in request order
+     * @throws InvalidDeviceRequestException if the IDs are missing, contain {@code null} or are too many
+     * @throws DeviceServiceException if an error occurs while retrieving the devices
+     */
+    public BulkGetResult findDevicesByIds(List<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidDeviceRequestException("Ids must be given and must not be null");
+        }
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.size() > maxPageSize) {
+            throw new InvalidDeviceRequestException("At most " + maxPageSize + " devices can be retrieved at once");
+        }
+        try {
+            Map<Long, Device> found = new HashMap<>();
+            List<Long> uncached = new ArrayList<>();
+            Cache cache = cacheManager.getCache(CacheConfig.DEVICES);
+            for (Long id : distinct) {
+                Device device = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : null;
+                if (device == null && cache != null) {
+                    device = cache.get(id, Device.class);
+                }
+                if (device != null) {
+                    found.put(id, device);
+                } else {
+                    uncached.add(id);
+                }
+            }
+            for (int from = 0; from < uncached.size(); from += bulkChunkSize) {
+                List<Long> chunk = uncached.subList(from, Math.min(from + bulkChunkSize, uncached.size()));
+                deviceRepository.findAllById(chunk).forEach(device -> found.put(device.getId(), device));
+            }
+            List<Device> devices = new ArrayList<>(found.size());
+            List<Long> notFound = new ArrayList<>();
+            for (Long id : distinct) {
+                Device device = found.get(id);
+                if (device != null) {
+                    devices.add(device);
+                } else {
+                    notFound.add(id);
+                }
+            }
+            return new BulkGetResult(devices, notFound);
+        } catch (Exception e) {
+            throw failure("Error retrieving devices by ID", e);
+        }
+    }
+
+    /**
+     * Finds the version and last modification time of a device without loading it,
+     * to answer conditional requests.
+     * Not transactional, so that callers sharing an identical query in flight do not hold a connection while
+     * they wait; the repository query runs in its own read-only transaction.
+     *
+     * @param id the ID of the device
+     * @return the stamp of the device, or empty if it does not exist
+     * @throws DeviceServiceException if an error occurs while retrieving the device
+     */
+    public Optional<DeviceStamp> findDeviceStamp(Long id) {
+        Device queued = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : null;
+        if (queued != null) {
+            return Optional.of(DeviceStamp.of(queued));
+        }
+        try {
+            return coalescer.coalesce(FIND_STAMP_BY_ID, id, () -> deviceRepository.findStampById(id));
         } catch (Exception e) {
-            throw new DeviceServiceException("Error retrieving device by ID", e);
+            throw failure("Error retrieving device by ID", e);
         }
     }
 
@@ -71,7 +346,178 @@ public class DeviceService {
         try {
             return deviceRepository.findAll();
         } catch (Exception e) {
-            throw new DeviceServiceException("Error retrieving devices", e);
+            throw failure("Error retrieving devices", e);
+        }
+    }
+
+    /**
+     * Finds the read-only projection of a device by its ID.
+     *
+     * @param id the ID of the device to find
+     * @return the device projection
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceServiceException if an error occurs while retrieving the device
+     */
+    @Transactional(readOnly = true)
+    public DeviceView findDeviceView(Long id) {
+        Device queued = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : null;
+        if (queued != null) {
+            return DeviceView.of(queued);
+        }
+        try {
+            return deviceRepository.findViewById(id)
+                    .orElseThrow(() -> new DeviceNotFoundException(id));
+        } catch (Exception e) {
+            throw failure("Error retrieving device by ID", e);
+        }
+    }
+
+    /**
+     * Retrieves the read-only projections of all devices, ordered by id.
+     *
+     * @return the device projections
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceView> findAllDeviceViews() {
+        try {
+            return deviceRepository.findAllViews();
+        } catch (Exception e) {
+            throw failure("Error retrieving devices", e);
+        }
+    }
+
+    /**
+     * Finds the read-only projections of the devices with the given brand, ordered by id.
+     *
+     * @param brand the brand of the devices to find
+     * @return the device projections
+     * @throws DeviceServiceException if an error occurs while finding devices by brand
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceView> findDeviceViewsByBrand(String brand) {
+        try {
+            return deviceRepository.findViewsByBrand(brand);
+        } catch (Exception e) {
+            throw failure("Error finding devices by brand", e);
+        }
+    }
+
+    /**
+     * Retrieves one page of devices ordered by id, starting after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the maximum number of devices on the page
+     * @return the page of devices and the cursor for the next page
+     * @throws InvalidDeviceRequestException if the cursor is malformed or the size is out of range
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    public DeviceCursorPage findDevicesPage(String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidDeviceRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        long afterId = cursor == null ? 0L : DeviceCursor.decode(cursor);
+        try {
+            // Fetch one extra row to learn whether another page exists without a count query
+            List<Device> devices = deviceRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+            if (devices.size() <= size) {
+                return new DeviceCursorPage(devices, null);
+            }
+            List<Device> page = devices.subList(0, size);
+            return new DeviceCursorPage(page, DeviceCursor.encode(page.get(size - 1).getId()));
+        } catch (Exception e) {
+            throw failure("Error retrieving devices page", e);
+        }
+    }
+
+    /**
+     * Retrieves one page of the devices created in a time range, ordered by creation time then id,
+     * starting after the given cursor.
+     *
+     * @param from the earliest creation time, inclusive
+     * @param to the latest creation time, exclusive
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the maximum number of devices on the page
+     * @return the page of devices and the cursor for the next page
+     * @throws InvalidDeviceRequestException if the range is empty, the cursor is malformed or the size is out of range
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    public DeviceCursorPage findDevicesCreatedBetween(LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        checkCreationRange(from, to);
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidDeviceRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        LocalDateTime after = from;
+        long afterId = 0L;
+        if (cursor != null) {
+            DeviceCursor.Created position = DeviceCursor.decodeCreated(cursor);
+            // A cursor from another range is clamped to this one rather than rejected
+            if (!position.creationTime().isBefore(from)) {
+                after = position.creationTime();
+                afterId = position.id();
+            }
+        }
+        try {
+            // Fetch one extra row to learn whether another page exists without a count query
+            List<Device> devices = deviceRepository.findCreatedBetween(after, to, afterId, Limit.of(size + 1));
+            if (devices.size() <= size) {
+                return new DeviceCursorPage(devices, null);
+            }
+            List<Device> page = devices.subList(0, size);
+            Device last = page.get(size - 1);
+            return new DeviceCursorPage(page, DeviceCursor.encodeCreated(last.getCreationTime(), last.getId()));
+        } catch (Exception e) {
+            throw failure("Error retrieving devices by creation time", e);
+        }
+    }
+
+    /**
+     * Passes the devices created in a time range, ordered by creation time then id, to the given consumer.
+     * Rows are read through a scrolled result set and detached once consumed, so memory use does not grow
+     * with the size of the range.
+     *
+     * @param from the earliest creation time, inclusive
+     * @param to the latest creation time, exclusive
+     * @param consumer the consumer receiving each device
+     * @throws InvalidDeviceRequestException if the range is empty
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @Transactional(readOnly = true)
+    public void streamDevicesCreatedBetween(LocalDateTime from, LocalDateTime to, Consumer<Device> consumer) {
+        checkCreationRange(from, to);
+        try (Stream<Device> devices = deviceRepository.streamCreatedBetween(from, to)) {
+            devices.forEach(device -> {
+                consumer.accept(device);
+                entityManager.detach(device);
+            });
+        } catch (Exception e) {
+            throw failure("Error streaming devices by creation time", e);
+        }
+    }
+
+    private static void checkCreationRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidDeviceRequestException("From must be before to");
+        }
+    }
+
+    /**
+     * Passes every device, ordered by id, to the given consumer.
+     * Rows are read through a scrolled result set and detached once consumed,
+     * so memory use does not grow with the size of the table.
+     *
+     * @param consumer the consumer receiving each device
+     * @throws DeviceServiceException if an error occurs while retrieving devices
+     */
+    @Transactional(readOnly = true)
+    public void streamAllDevices(Consumer<Device> consumer) {
+        try (Stream<Device> devices = deviceRepository.streamAllOrderById()) {
+            devices.forEach(device -> {
+                consumer.accept(device);
+                entityManager.detach(device);
+            });
+        } catch (Exception e) {
+            throw failure("Error streaming devices", e);
         }
     }
 
@@ -82,51 +528,388 @@ public class DeviceService {
      * @return a list of devices with the specified brand
      * @throws DeviceServiceException if an error occurs while finding devices by brand
      */
+    @Cacheable(cacheNames = CacheConfig.DEVICES_BY_BRAND, key = "#brand")
     public List<Device> findDevicesByBrand(String brand) {
         try {
-            return deviceRepository.findByBrand(brand);
+            return coalescer.coalesce(FIND_BY_BRAND, brand, () -> deviceRepository.findByBrand(brand));
+        } catch (Exception e) {
+            throw failure("Error finding devices by brand", e);
+        }
+    }
+
+    /**
+     * Summarizes the devices of a brand without loading them, to answer conditional requests.
+     * Not transactional, for the same reason as {@link #findDeviceStamp(Long)}.
+     *
+     * @param brand the brand of the devices
+     * @return the stamp of the brand
+     * @throws DeviceServiceException if an error occurs while finding devices by brand
+     */
+    public BrandStamp findBrandStamp(String brand) {
+        try {
+            return coalescer.coalesce(FIND_BRAND_STAMP, brand, () -> deviceRepository.findBrandStamp(brand));
         } catch (Exception e) {
-            throw new DeviceServiceException("Error finding devices by brand", e);
+            throw failure("Error finding devices by brand", e);
+        }
+    }
+
+    /**
+     * Searches one page of devices by brand.
+     * All match modes are served by an index: exact matches by the brand index, case-insensitive
+     * matches by the normalized brand index, and prefixes by a {@code LIKE 'prefix%'} range scan.
+     *
+     * @param brand the brand, or brand prefix, to search for
+     * @param ignoreCase whether to match the brand case-insensitively
+     * @param prefix whether to match brands starting with {@code brand}
+     * @param pageable the page and sort to apply; sorting by id is used when none is given
+     * @return the page of matching devices
+     * @throws InvalidDeviceRequestException if the sort refers to an unknown property
+     * @throws DeviceServiceException if an error occurs while searching devices
+     */
+    public DevicePage searchDevicesByBrand(String brand, boolean ignoreCase, boolean prefix, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidDeviceRequestException("Cannot sort devices by " + order.getProperty());
+            }
+        }
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+        try {
+            Slice<Device> devices;
+            if (ignoreCase) {
+                String normalized = Device.normalize(brand);
+                devices = prefix
+                        ? deviceRepository.findByBrandNormalizedStartingWith(normalized, pageable)
+                        : deviceRepository.findByBrandNormalized(normalized, pageable);
+            } else {
+                devices = prefix
+                        ? deviceRepository.findByBrandStartingWith(brand, pageable)
+                        : deviceRepository.findByBrand(brand, pageable);
+            }
+            return new DevicePage(devices.getContent(), devices.getNumber(), devices.getSize(), devices.hasNext());
+        } catch (Exception e) {
+            throw failure("Error searching devices by brand", e);
         }
     }
 
     /**
      * Updates an existing device.
+     * The change is applied with a single UPDATE statement; the device is then read back once
+     * to return its current state.
      *
      * @param id the ID of the device to update
      * @param deviceDto the data transfer object containing the updated device details
+     * @param expectedVersion the version the device must have, or {@code null} to skip the check
      * @return the updated device
      * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not have the expected version
+     * @throws WriteBehindQueueFullException if the device is still queued for write-behind after the await timeout
      * @throws DeviceServiceException if an error occurs while updating the device
      */
-    @Transactional
-    public Device updateDevice(Long id, DeviceDto deviceDto) {
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.DEVICES, key = "#id"),
+            // The previous brand is not known here, so all brand lists are dropped
+            evict = @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, allEntries = true)
+    )
+    public Device updateDevice(Long id, DeviceDto deviceDto, Long expectedVersion) {
+        try {
+            awaitQueued(id);
+            Device updated = transactionTemplate.execute(status -> {
+                write(id, deviceDto, false, expectedVersion);
+                return reloadUpdated(id, deviceDto);
+            });
+            forgetLookups(List.of(id));
+            return updated;
+        } catch (Exception e) {
+            throw failure("Error updating device", e);
+        }
+    }
+
+    /**
+     * Partially updates an existing device: only the non-null fields of {@code deviceDto} are changed.
+     * The change is applied with a single UPDATE statement; the device is then read back once
+     * to return its current state.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the fields to change
+     * @param expectedVersion the version the device must have, or {@code null} to skip the check
+     * @return the updated device
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not have the expected version
+     * @throws WriteBehindQueueFullException if the device is still queued for write-behind after the await timeout
+     * @throws DeviceServiceException if an error occurs while updating the device
+     */
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.DEVICES, key = "#id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, allEntries = true)
+    )
+    public Device patchDevice(Long id, DeviceDto deviceDto, Long expectedVersion) {
+        try {
+            awaitQueued(id);
+            Device patched = transactionTemplate.execute(status -> {
+                write(id, deviceDto, true, expectedVersion);
+                return reloadUpdated(id, deviceDto);
+            });
+            forgetLookups(List.of(id));
+            return patched;
+        } catch (Exception e) {
+            throw failure("Error updating device", e);
+        }
+    }
+
+    /**
+     * Updates an existing device without reading it back, so the write costs exactly one statement when
+     * {@code expectedVersion} is given. Otherwise the new version is read back for the in-memory indexes.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the updated device details
+     * @param partial whether only the non-null fields of {@code deviceDto} are changed
+     * @param expectedVersion the version the device must have, or {@code null} to skip the check
+     * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not have the expected version
+     * @throws WriteBehindQueueFullException if the device is still queued for write-behind after the await timeout
+     * @throws DeviceServiceException if an error occurs while updating the device
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEVICES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, allEntries = true)
+    })
+    public void applyUpdate(Long id, DeviceDto deviceDto, boolean partial, Long expectedVersion) {
         try {
-            Device device = findDeviceById(id);
-            device.setName(deviceDto.name());
-            device.setBrand(deviceDto.brand());
-            return deviceRepository.save(device);
+            awaitQueued(id);
+            transactionTemplate.executeWithoutResult(status -> {
+                write(id, deviceDto, partial, expectedVersion);
+                // The row stays locked until commit, so the version read back is the one this update gave it
+                long version = expectedVersion != null ? expectedVersion + 1 : deviceRepository.findStampById(id)
+                        .map(DeviceStamp::version)
+                        .orElseThrow(() -> new DeviceNotFoundException(id));
+                recordUpdated(id, deviceDto, version);
+            });
+            forgetLookups(List.of(id));
         } catch (Exception e) {
-            throw new DeviceServiceException("Error updating device", e);
+            throw failure("Error updating device", e);
+        }
+    }
+
+    private void write(Long id, DeviceDto deviceDto, boolean partial, Long expectedVersion) {
+        String normalizedBrand = Device.normalize(deviceDto.brand());
+        LocalDateTime now = LocalDateTime.now();
+        int updated = partial
+                ? deviceRepository.patchNameAndBrand(id, deviceDto.name(), deviceDto.brand(), normalizedBrand,
+                        expectedVersion, now)
+                : deviceRepository.updateNameAndBrand(id, deviceDto.name(), deviceDto.brand(), normalizedBrand,
+                        expectedVersion, now);
+        if (updated == 0) {
+            throw notFoundOrConflict(id, expectedVersion);
+        }
+    }
+
+    private Device reloadUpdated(Long id, DeviceDto deviceDto) {
+        // Read back once, both for the response and for the version the in-memory indexes need
+        Device device = reload(id);
+        recordUpdated(id, deviceDto, device.getVersion());
+        return device;
+    }
+
+    private void recordUpdated(Long id, DeviceDto deviceDto, long version) {
+        changeFeed.recordUpdated(id);
+        statistics.recordUpdated(id, version, deviceDto.brand());
+        searchIndex.recordUpdated(id, version, deviceDto.name(), deviceDto.brand());
+    }
+
+    private RuntimeException notFoundOrConflict(Long id, Long expectedVersion) {
+        // Only a conditional write can miss an existing row, so the extra lookup is limited to that case
+        if (expectedVersion != null && deviceRepository.existsById(id)) {
+            return new DeviceVersionConflictException(id, expectedVersion);
         }
+        return new DeviceNotFoundException(id);
+    }
+
+    private void awaitQueued(Long id) {
+        // A device still in the write-behind queue has no row yet for the statement to find. Callers wait
+        // before opening their transaction, so waiting requests hold no connection the flusher needs
+        if (writeBehindBuffer != null) {
+            writeBehindBuffer.awaitFlushed(id, writeBehindAwaitTimeout);
+        }
+    }
+
+    private Device reload(Long id) {
+        return deviceRepository.findById(id).orElseThrow(() -> new DeviceNotFoundException(id));
     }
 
     /**
-     * Deletes a device by its ID.
+     * Deletes a device by its ID with a single DELETE statement.
      *
      * @param id the ID of the device to delete
+     * @param expectedVersion the version the device must have, or {@code null} to skip the check
      * @throws DeviceNotFoundException if the device with the specified ID is not found
+     * @throws DeviceVersionConflictException if the device does not have the expected version
+     * @throws WriteBehindQueueFullException if the device is still queued for write-behind after the await timeout
      * @throws DeviceServiceException if an error occurs while deleting the device
      */
-    @Transactional
-    public void deleteDevice(Long id) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEVICES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DEVICES_BY_BRAND, allEntries = true)
+    })
+    public void deleteDevice(Long id, Long expectedVersion) {
         try {
-            if (!deviceRepository.existsById(id)) {
-                throw new DeviceNotFoundException(id);
-            }
-            deviceRepository.deleteById(id);
+            awaitQueued(id);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (deviceRepository.deleteDeviceById(id, expectedVersion) == 0) {
+                    throw notFoundOrConflict(id, expectedVersion);
+                }
+                changeFeed.recordDeleted(id);
+                statistics.recordDeleted(id);
+                searchIndex.recordDeleted(id);
+            });
+            forgetLookups(List.of(id));
+        } catch (Exception e) {
+            throw failure("Error deleting device", e);
+        }
+    }
+
+    /**
+     * Renames or rebrands the devices selected by id or by brand.
+     * The devices are updated in chunks of {@code device.bulk.chunk-size}, each with a single UPDATE
+     * statement in its own transaction, so chunks already committed stay updated if a later one fails.
+     *
+     * @param request the selection and the fields to change
+     * @return the number of updated devices and the requested IDs that were not found
+     * @throws InvalidDeviceRequestException if the selection is not exactly one of ids and brand, or nothing is changed
+     * @throws DeviceServiceException if an error occurs while updating the devices
+     */
+    public BulkWriteResult updateDevices(BulkUpdateRequest request) {
+        DeviceDto changes = request.set();
+        if (changes == null || (changes.name() == null && changes.brand() == null)) {
+            throw new InvalidDeviceRequestException("Set must change the name or the brand");
+        }
+        String normalizedBrand = Device.normalize(changes.brand());
+        try {
+            return writeInChunks(request.ids(), request.brand(), ids -> {
+                int updated = deviceRepository.patchNameAndBrandByIds(ids, changes.name(), changes.brand(),
+                        normalizedBrand, LocalDateTime.now());
+                List<DeviceVersion> versions = deviceRepository.findVersionsByIds(ids);
+                changeFeed.recordUpdated(ids);
+                statistics.recordUpdated(versions, changes.brand());
+                searchIndex.recordUpdated(versions, changes.name(), changes.brand());
+                return updated;
+            });
         } catch (Exception e) {
-            throw new DeviceServiceException("Error deleting device", e);
+            throw failure("Error updating devices", e);
+        }
+    }
+
+    /**
+     * Deletes the devices selected by id or by brand.
+     * The devices are deleted in chunks of {@code device.bulk.chunk-size}, each with a single DELETE
+     * statement in its own transaction, so chunks already committed stay deleted if a later one fails.
+     *
+     * @param request the selection
+     * @return the number of deleted devices and the requested IDs that were not found
+     * @throws InvalidDeviceRequestException if the selection is not exactly one of ids and brand
+     * @throws DeviceServiceException if an error occurs while deleting the devices
+     */
+    public BulkWriteResult deleteDevices(BulkDeleteRequest request) {
+        try {
+            return writeInChunks(request.ids(), request.brand(), ids -> {
+                int deleted = deviceRepository.deleteDevicesByIds(ids);
+                changeFeed.recordDeleted(ids);
+                statistics.recordDeleted(ids);
+                searchIndex.recordDeleted(ids);
+                return deleted;
+            });
+        } catch (Exception e) {
+            throw failure("Error deleting devices", e);
+        }
+    }
+
+    /**
+     * Applies a set-based write to the selected devices one chunk per transaction, passing it only the
+     * ids of existing devices. Ids are walked in order, so a brand selection is read with keyset
+     * pagination and devices moved away from the brand by the write are not revisited.
+     */
+    private BulkWriteResult writeInChunks(List<Long> ids, String brand, ToIntFunction<List<Long>> write) {
+        if ((ids == null) == (brand == null)) {
+            throw new InvalidDeviceRequestException("Exactly one of ids and brand must be given");
+        }
+        int affected = 0;
+        List<Long> notFound = new ArrayList<>();
+        if (ids != null) {
+            if (ids.stream().anyMatch(Objects::isNull)) {
+                throw new InvalidDeviceRequestException("Ids must not be null");
+            }
+            List<Long> distinct = ids.stream().distinct().toList();
+            for (int from = 0; from < distinct.size(); from += bulkChunkSize) {
+                List<Long> chunk = distinct.subList(from, Math.min(from + bulkChunkSize, distinct.size()));
+                chunk.forEach(this::awaitQueued);
+                affected += transactionTemplate.execute(status -> {
+                    List<Long> existing = deviceRepository.findExistingIds(chunk);
+                    Set<Long> found = new HashSet<>(existing);
+                    chunk.stream().filter(id -> !found.contains(id)).forEach(notFound::add);
+                    return existing.isEmpty() ? 0 : write.applyAsInt(existing);
+                });
+                evictAfterBulkWrite(chunk);
+            }
+            return new BulkWriteResult(affected, notFound);
+        }
+        List<Long> chunk;
+        long afterId = 0;
+        do {
+            long after = afterId;
+            ChunkResult result = transactionTemplate.execute(status -> {
+                List<Long> selected = deviceRepository.findIdsByBrand(brand, after, Limit.of(bulkChunkSize));
+                return new ChunkResult(selected, selected.isEmpty() ? 0 : write.applyAsInt(selected));
+            });
+            chunk = result.ids();
+            affected += result.affected();
+            evictAfterBulkWrite(chunk);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == bulkChunkSize);
+        return new BulkWriteResult(affected, notFound);
+    }
+
+    private record ChunkResult(List<Long> ids, int affected) { }
+
+    /**
+     * Called once a write commits, so callers arriving afterwards do not join a lookup that may have
+     * read the devices before the write, and cache its result. The previous brands are not known, so
+     * every brand lookup is dropped.
+     */
+    private void forgetLookups(List<Long> ids) {
+        ids.forEach(id -> {
+            coalescer.forget(FIND_BY_ID, id);
+            coalescer.forget(FIND_STAMP_BY_ID, id);
+        });
+        coalescer.forgetAll(FIND_BY_BRAND);
+        coalescer.forgetAll(FIND_BRAND_STAMP);
+    }
+
+    private void evictAfterBulkWrite(List<Long> ids) {
+        // Evicted chunk by chunk once committed, so a failing later chunk leaves no stale entries behind
+        forgetLookups(ids);
+        Cache devices = cacheManager.getCache(CacheConfig.DEVICES);
+        if (devices != null) {
+            ids.forEach(devices::evict);
+        }
+        Cache brands = cacheManager.getCache(CacheConfig.DEVICES_BY_BRAND);
+        if (brands != null && !ids.isEmpty()) {
+            brands.clear();
+        }
+    }
+
+    /**
+     * Wraps an unexpected error in a {@link DeviceServiceException}. Errors that already describe the
+     * outcome of the request, such as a missing device, are passed on unchanged, so they are never
+     * reported as a 500.
+     */
+    private static RuntimeException failure(String message, Exception e) {
+        if (e instanceof DeviceNotFoundException || e instanceof DeviceVersionConflictException
+                || e instanceof InvalidDeviceRequestException || e instanceof WriteBehindQueueFullException) {
+            return (RuntimeException) e;
         }
+        return new DeviceServiceException(message, e);
     }
 }
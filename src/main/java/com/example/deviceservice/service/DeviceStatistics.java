@@ -0,0 +1,224 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceStats;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.model.Device;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory aggregate of the device table: the number of devices per brand and per creation-time bucket.
+ * <p>
+ * The aggregate is built at startup by {@link DeviceIndexLoader} and then kept current by the writes of
+ * {@link DeviceService} and {@link DeviceWriteBehindBuffer}. Each write is applied once its transaction
+ * commits, so a rolled back write is never counted. Statistics requests cost O(brands) instead of
+ * a scan of the table. Writes made by other instances on the same database are picked up only on restart.
+ * <p>
+ * Updates and deletes do not read the device. The aggregate therefore keeps the brand and bucket
+ * of every device by id, so that it can move or remove the device. It also keeps the version of the
+ * update that set the brand: the commit callbacks of concurrent updates run in any order, and an
+ * update never replaces a brand set by a newer one.
+ */
+@Service
+public class DeviceStatistics {
+    // Ascending, so that the head of a bounded heap is the entry to drop; ties keep the first brand by name
+    private static final Comparator<Map.Entry<String, Long>> BY_COUNT = Map.Entry.<String, Long>comparingByValue()
+            .thenComparing(Map.Entry.<String, Long>comparingByKey(Comparator.reverseOrder()));
+
+    @Value("${device.stats.bucket-width:1h}")
+    private Duration bucketWidth;
+
+    @Value("${device.page.max-size:1000}")
+    private int maxPageSize;
+
+    private final Map<Long, Indexed> devices = new ConcurrentHashMap<>();
+    private final Map<String, Long> countsByBrand = new ConcurrentHashMap<>();
+    // Keyed by the start of the bucket in epoch seconds
+    private final ConcurrentNavigableMap<Long, Long> countsByBucket = new ConcurrentSkipListMap<>();
+
+    /**
+     * What the aggregate knows of a device; the brand or bucket is {@code null} if the column is.
+     * The brand version is that of the update that set the brand, 0 for a brand read at creation or startup.
+     */
+    private record Indexed(String brand, long brandVersion, Long bucket) { }
+
+    @PostConstruct
+    void checkBucketWidth() {
+        if (bucketWidth.getSeconds() < 1) {
+            throw new IllegalStateException("device.stats.bucket-width must be at least one second");
+        }
+    }
+
+    /**
+     * Counts a device read from the table by {@link DeviceIndexLoader}.
+     *
+     * @param view the device
+     */
+    void load(DeviceView view) {
+        add(view.id(), view.brand(), view.creationTime());
+    }
+
+    /**
+     * Counts created devices once the current transaction commits.
+     *
+     * @param created the created devices, with their ids assigned
+     */
+    public void recordCreated(List<Device> created) {
+        List<DeviceView> views = AfterCommit.views(created);
+        AfterCommit.run(() -> views.forEach(view -> add(view.id(), view.brand(), view.creationTime())));
+    }
+
+    /**
+     * Moves an updated device to its new brand once the current transaction commits.
+     *
+     * @param id the ID of the updated device
+     * @param version the version the update gave the device
+     * @param brand the new brand, or {@code null} if the brand was not changed
+     */
+    public void recordUpdated(Long id, long version, String brand) {
+        recordUpdated(List.of(new DeviceVersion(id, version)), brand);
+    }
+
+    /**
+     * Moves updated devices to their new brand once the current transaction commits.
+     *
+     * @param updated the IDs of the updated devices with the versions the update gave them
+     * @param brand the new brand, or {@code null} if the brand was not changed
+     */
+    public void recordUpdated(List<DeviceVersion> updated, String brand) {
+        if (brand == null) {
+            return;
+        }
+        List<DeviceVersion> versions = List.copyOf(updated);
+        AfterCommit.run(() -> versions.forEach(device -> devices.computeIfPresent(device.id(), (id, indexed) -> {
+            if (device.version() <= indexed.brandVersion()) {
+                return indexed;
+            }
+            if (!brand.equals(indexed.brand())) {
+                countBrand(indexed.brand(), -1);
+                countBrand(brand, 1);
+            }
+            return new Indexed(brand, device.version(), indexed.bucket());
+        })));
+    }
+
+    /**
+     * Uncounts a deleted device once the current transaction commits.
+     *
+     * @param id the ID of the deleted device
+     */
+    public void recordDeleted(Long id) {
+        recordDeleted(List.of(id));
+    }
+
+    /**
+     * Uncounts deleted devices once the current transaction commits.
+     *
+     * @param ids the IDs of the deleted devices
+     */
+    public void recordDeleted(List<Long> ids) {
+        List<Long> deleted = List.copyOf(ids);
+        AfterCommit.run(() -> deleted.forEach(id -> {
+            Indexed removed = devices.remove(id);
+            if (removed != null) {
+                countBrand(removed.brand(), -1);
+                countBucket(removed.bucket(), -1);
+            }
+        }));
+    }
+
+    /**
+     * Summarizes the devices.
+     *
+     * @param top the number of brands to rank
+     * @param from the earliest creation time to report buckets for, or {@code null} for no lower bound
+     * @param to the creation time to report buckets until, exclusive, or {@code null} for no upper bound
+     * @return the statistics
+     * @throws InvalidDeviceRequestException if {@code top} is out of range or the time range is empty
+     */
+    public DeviceStats getStats(int top, LocalDateTime from, LocalDateTime to) {
+        if (top < 1 || top > maxPageSize) {
+            throw new InvalidDeviceRequestException("Top must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidDeviceRequestException("From must be before to");
+        }
+        Map<String, Long> brands = new TreeMap<>(countsByBrand);
+        // Bounded heap: O(brands log top) instead of sorting every brand
+        PriorityQueue<Map.Entry<String, Long>> ranked = new PriorityQueue<>(top + 1, BY_COUNT);
+        for (Map.Entry<String, Long> entry : brands.entrySet()) {
+            ranked.add(entry);
+            if (ranked.size() > top) {
+                ranked.poll();
+            }
+        }
+        List<DeviceStats.BrandCount> topBrands = new ArrayList<>(ranked.size());
+        while (!ranked.isEmpty()) {
+            Map.Entry<String, Long> entry = ranked.poll();
+            topBrands.add(0, new DeviceStats.BrandCount(entry.getKey(), entry.getValue()));
+        }
+        return new DeviceStats(devices.size(), brands, topBrands, bucketWidth.getSeconds(), buckets(from, to));
+    }
+
+    private List<DeviceStats.CreationBucket> buckets(LocalDateTime from, LocalDateTime to) {
+        ConcurrentNavigableMap<Long, Long> range = countsByBucket;
+        if (from != null) {
+            range = range.tailMap(bucketOf(from), true);
+        }
+        if (to != null) {
+            range = range.headMap(to.toEpochSecond(ZoneOffset.UTC), false);
+        }
+        return range.entrySet().stream()
+                .map(entry -> new DeviceStats.CreationBucket(
+                        LocalDateTime.ofEpochSecond(entry.getKey(), 0, ZoneOffset.UTC), entry.getValue()))
+                .toList();
+    }
+
+    private void add(Long id, String brand, LocalDateTime creationTime) {
+        Indexed indexed = new Indexed(brand, 0, creationTime == null ? null : bucketOf(creationTime));
+        if (devices.putIfAbsent(id, indexed) == null) {
+            countBrand(indexed.brand(), 1);
+            countBucket(indexed.bucket(), 1);
+        }
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        // Creation times are local; they are bucketed as wall-clock times
+        long width = bucketWidth.getSeconds();
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), width) * width;
+    }
+
+    private void countBrand(String brand, long delta) {
+        if (brand != null) {
+            countsByBrand.merge(brand, delta, DeviceStatistics::sumOrRemove);
+        }
+    }
+
+    private void countBucket(Long bucket, long delta) {
+        if (bucket != null) {
+            countsByBucket.merge(bucket, delta, DeviceStatistics::sumOrRemove);
+        }
+    }
+
+    private static Long sumOrRemove(Long count, Long delta) {
+        long sum = count + delta;
+        return sum == 0 ? null : sum;
+    }
+}
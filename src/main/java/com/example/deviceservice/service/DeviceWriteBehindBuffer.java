@@ -0,0 +1,320 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.config.CacheConfig;
+import com.example.deviceservice.exception.WriteBehindQueueFullException;
+import com.example.deviceservice.model.Device;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for device registrations, enabled with {@code device.write-behind.enabled=true}.
+ * <p>
+ * {@link #submit(Device)} assigns the device an id from {@code device_seq} and places it in a bounded
+ * queue; a single flusher thread inserts queued devices in JDBC batches, one transaction per batch
+ * that also appends their entries to the {@link DeviceChangeFeed} and counts them in the
+ * {@link DeviceStatistics},
+ * as soon as {@code batch-size} devices are waiting or {@code flush-interval} has passed. When the
+ * queue stays full for {@code offer-timeout} the device is rejected, which callers see as 503.
+ * Devices are visible through {@link #findPending(Long)} until their batch has committed, and the
+ * queue is drained before the application context closes.
+ * <p>
+ * Its devices were already acknowledged with an id, so a failed batch is never dropped: it is retried
+ * with exponential backoff, up to {@link #MAX_RETRY_DELAY} apart, until the database takes it. Its
+ * devices stay pending meanwhile, and the bounded queue fills up and rejects new devices.
+ */
+@Slf4j
+public class DeviceWriteBehindBuffer implements SmartLifecycle {
+    private static final String INSERT_DEVICE =
+            "insert into device (id, name, brand, brand_normalized, creation_time, version, last_modified) "
+                    + "values (?, ?, ?, ?, ?, 0, ?)";
+    private static final String NEXT_ID_BLOCK = "select next value for device_seq";
+    // Must match the allocationSize of device_seq on Device, so ids never collide with Hibernate's
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final DeviceChangeFeed changeFeed;
+    private final DeviceStatistics statistics;
+    private final DeviceSearchIndex searchIndex;
+    private final BlockingQueue<Device> queue;
+    private final Map<Long, Device> pending = new ConcurrentHashMap<>();
+    private final Object flushed = new Object();
+    // Submits hold the read lock from their running check through their offer, stop() takes the write
+    // lock to clear running, so every accepted device is in the queue before the final drain
+    private final ReadWriteLock accepting = new ReentrantReadWriteLock();
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Counter flushedDevices;
+    private final Counter failedFlushes;
+
+    private long nextId;
+    private long lastIdOfBlock = -1;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public DeviceWriteBehindBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   CacheManager cacheManager, DeviceChangeFeed changeFeed, DeviceStatistics statistics,
+                                   DeviceSearchIndex searchIndex, MeterRegistry meterRegistry, int capacity, int batchSize,
+                                   Duration flushInterval, Duration offerTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.changeFeed = changeFeed;
+        this.statistics = statistics;
+        this.searchIndex = searchIndex;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.flushedDevices = meterRegistry.counter("device.write-behind.flushed");
+        this.failedFlushes = meterRegistry.counter("device.write-behind.failed-flushes");
+        Gauge.builder("device.write-behind.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Assigns an id to the device and queues it for insertion.
+     *
+     * @param device the device to insert, without an id
+     * @return the same device, with its id set
+     * @throws WriteBehindQueueFullException if the queue stays full for the offer timeout or the buffer is stopped
+     */
+    public Device submit(Device device) {
+        Lock lock = accepting.readLock();
+        lock.lock();
+        try {
+            return enqueue(device);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Device enqueue(Device device) {
+        if (!running) {
+            throw new WriteBehindQueueFullException("Device registration is shutting down");
+        }
+        device.setId(allocateId());
+        device.setVersion(0L);
+        device.setLastModified(device.getCreationTime());
+        pending.put(device.getId(), device);
+        boolean queued;
+        try {
+            queued = queue.offer(device, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            pending.remove(device.getId());
+            throw new WriteBehindQueueFullException("Device registration queue is full");
+        }
+        return device;
+    }
+
+    /**
+     * Returns a device that has been accepted but not yet written to the database.
+     *
+     * @param id the ID of the device
+     * @return the queued device, or {@code null} if no device with this id is waiting
+     */
+    public Device findPending(Long id) {
+        return pending.get(id);
+    }
+
+    /**
+     * Waits until a queued device has been written, so that statements on its row find it.
+     * Returns immediately when the device is not waiting in the queue.
+     *
+     * @param id the ID of the device
+     * @param timeout the maximum time to wait
+     * @throws WriteBehindQueueFullException if the device is still queued after the timeout, so the
+     *         caller is asked to retry
+     */
+    public void awaitFlushed(Long id, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (flushed) {
+            while (pending.containsKey(id)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new WriteBehindQueueFullException("Timed out waiting for queued device " + id);
+                }
+                try {
+                    flushed.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new WriteBehindQueueFullException("Interrupted waiting for queued device " + id);
+                }
+            }
+        }
+    }
+
+    private synchronized long allocateId() {
+        if (nextId > lastIdOfBlock) {
+            // Pooled semantics: sequence value v reserves the ids (v - blockSize, v]
+            lastIdOfBlock = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class);
+            nextId = Math.max(1, lastIdOfBlock - ID_BLOCK_SIZE + 1);
+        }
+        return nextId++;
+    }
+
+    private void runFlusher() {
+        List<Device> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Device first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (running && batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Device next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Left to stop(), which drains whatever is still queued
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Device> batch) {
+        long retryDelay = FIRST_RETRY_DELAY.toMillis();
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_DEVICE, batch, batch.size(), (statement, device) -> {
+                        statement.setLong(1, device.getId());
+                        statement.setString(2, device.getName());
+                        statement.setString(3, device.getBrand());
+                        statement.setString(4, device.getBrandNormalized());
+                        statement.setTimestamp(5, Timestamp.valueOf(device.getCreationTime()));
+                        statement.setTimestamp(6, Timestamp.valueOf(device.getLastModified()));
+                    });
+                    changeFeed.recordCreated(batch);
+                    statistics.recordCreated(batch);
+                    searchIndex.recordCreated(batch);
+                });
+                flushedDevices.increment(batch.size());
+                break;
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                log.error("Write-behind batch of {} devices failed, retrying in {} ms, ids {}", batch.size(),
+                        retryDelay, batch.stream().map(Device::getId).toList(), e);
+                sleep(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY.toMillis());
+            }
+        }
+        evictBrands(batch);
+        synchronized (flushed) {
+            batch.forEach(device -> pending.remove(device.getId()));
+            flushed.notifyAll();
+        }
+    }
+
+    private static void sleep(long millis) {
+        // Not interruptible: the batch must be written whatever thread flushes it, see stop()
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        for (long remaining = millis; remaining > 0;
+             remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) {
+            try {
+                Thread.sleep(remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void evictBrands(List<Device> batch) {
+        // Brand lists read while the devices were queued do not contain them yet
+        Cache brands = cacheManager.getCache(CacheConfig.DEVICES_BY_BRAND);
+        if (brands != null) {
+            batch.stream().map(Device::getBrand).distinct().forEach(brands::evict);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "device-write-behind");
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        Lock lock = accepting.writeLock();
+        lock.lock();
+        try {
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+        // The flusher is not interrupted, as an interrupt during JDBC I/O can close H2's file channels;
+        // it notices within one flush interval and empties the queue before exiting
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Devices offered after the flusher's last poll
+        List<Device> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+        log.info("Write-behind buffer drained");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so requests still in flight can queue their devices before the drain.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.deviceservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical lookups: while a lookup for a key is running, callers asking
+ * for the same key wait for it and share its result, or its exception, instead of querying again.
+ * A lookup is only shared while it is in flight; the next caller after it completes starts a new one.
+ * <p>
+ * In-flight lookups are kept in a concurrent map of futures: the first caller installs its future with
+ * {@code putIfAbsent} and runs the lookup on its own thread, the others join that future. Only the
+ * callers of a key that is in flight wait, and only for the lookup itself.
+ * <p>
+ * A lookup in flight may have read the rows before a write committed. Writers therefore call
+ * {@link #forget} once they commit: callers arriving afterwards start a new lookup instead of joining
+ * the old one, and so never see, or cache, a result older than their own request.
+ * <p>
+ * Callers are counted in {@code device.coalescing.calls}, tagged by {@code lookup} and by {@code role}:
+ * {@code leader} for the caller that ran the query, {@code follower} for those that shared it. The
+ * coalescing ratio is follower calls over all calls. Disable with {@code device.coalescing.enabled=false}.
+ */
+@Component
+public class LookupCoalescer {
+
+    private record Key(String lookup, Object key) { }
+
+    private record Counters(Counter leaders, Counter followers) { }
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public LookupCoalescer(MeterRegistry meterRegistry,
+                           @Value("${device.coalescing.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        meterRegistry.gaugeMapSize("device.coalescing.in-flight", List.of(), inFlight);
+    }
+
+    /**
+     * Runs the lookup, or joins the identical lookup already in flight.
+     *
+     * @param lookup the name of the lookup, e.g. {@code findById}
+     * @param key the arguments identifying the lookup, with value-based equality
+     * @param loader the lookup to run if none is in flight for the key
+     * @return the result of the lookup, shared with the other callers for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String lookup, Object key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Counters calls = counters.computeIfAbsent(lookup, this::register);
+        Key inFlightKey = new Key(lookup, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(inFlightKey, own);
+        if (running != null) {
+            calls.followers().increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        calls.leaders().increment();
+        try {
+            T result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(inFlightKey, own);
+        }
+    }
+
+    /**
+     * Stops sharing the lookup in flight for the key, if any. Its callers so far still get its result.
+     *
+     * @param lookup the name of the lookup
+     * @param key the arguments identifying the lookup
+     */
+    public void forget(String lookup, Object key) {
+        inFlight.remove(new Key(lookup, key));
+    }
+
+    /**
+     * Stops sharing every lookup in flight with the given name.
+     *
+     * @param lookup the name of the lookups
+     */
+    public void forgetAll(String lookup) {
+        inFlight.keySet().removeIf(key -> key.lookup().equals(lookup));
+    }
+
+    private Counters register(String lookup) {
+        return new Counters(
+                Counter.builder("device.coalescing.calls").tag("lookup", lookup).tag("role", "leader")
+                        .description("Lookups that ran a query").register(meterRegistry),
+                Counter.builder("device.coalescing.calls").tag("lookup", lookup).tag("role", "follower")
+                        .description("Lookups that shared the result of an identical query in flight")
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.exception.DeviceServiceException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.repository.ReactiveDeviceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive counterpart of {@link DeviceService}.
+ * Only reads are non-blocking: they go through {@link ReactiveDeviceRepository} over R2DBC.
+ * Writes are delegated to {@link DeviceService} on the bounded elastic scheduler, so they keep
+ * its transactions and cache maintenance. They are still blocking JPA calls, each holding a worker
+ * thread and a JDBC connection while it runs; only the caller's thread is released.
+ */
+@Service
+public class ReactiveDeviceService {
+
+    @Autowired
+    private ReactiveDeviceRepository reactiveDeviceRepository;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    /**
+     * Present only in write-behind mode, see {@link com.example.deviceservice.config.WriteBehindConfig}.
+     */
+    @Autowired(required = false)
+    private DeviceWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Creates a new device.
+     *
+     * @param deviceDto the data transfer object containing the device details
+     * @return the created device
+     */
+    public Mono<Device> createDevice(DeviceDto deviceDto) {
+        return offload(() -> deviceService.createDevice(deviceDto));
+    }
+
+    /**
+     * Finds a device by its ID. In write-behind mode a device still queued is found as well, as with
+     * {@link DeviceService#findDevice(Long)}.
+     *
+     * @param id the ID of the device to find
+     * @return the found device, or a {@link DeviceNotFoundException} error if it does not exist
+     */
+    public Mono<Device> findDeviceById(Long id) {
+        Device queued = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : null;
+        if (queued != null) {
+            return Mono.just(queued);
+        }
+        return reactiveDeviceRepository.findById(id)
+                .onErrorMap(e -> new DeviceServiceException("Error retrieving device by ID", e))
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException(id)));
+    }
+
+    /**
+     * Retrieves all devices ordered by id.
+     *
+     * @return the devices, emitted on demand
+     */
+    public Flux<Device> findAllDevices() {
+        return reactiveDeviceRepository.findAll()
+                .onErrorMap(e -> new DeviceServiceException("Error retrieving devices", e));
+    }
+
+    /**
+     * Finds devices by their brand, ordered by id.
+     *
+     * @param brand the brand of the devices to find
+     * @return the devices with the specified brand, emitted on demand
+     */
+    public Flux<Device> findDevicesByBrand(String brand) {
+        return reactiveDeviceRepository.findByBrand(brand)
+                .onErrorMap(e -> new DeviceServiceException("Error finding devices by brand", e));
+    }
+
+    /**
+     * Updates an existing device.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the updated device details
+     * @return the updated device
+     */
+    public Mono<Device> updateDevice(Long id, DeviceDto deviceDto) {
+        return offload(() -> deviceService.updateDevice(id, deviceDto, null));
+    }
+
+    /**
+     * Partially updates an existing device. Only the non-null fields of the dto are changed.
+     *
+     * @param id the ID of the device to update
+     * @param deviceDto the data transfer object containing the fields to change
+     * @return the updated device
+     */
+    public Mono<Device> patchDevice(Long id, DeviceDto deviceDto) {
+        return offload(() -> deviceService.patchDevice(id, deviceDto, null));
+    }
+
+    /**
+     * Deletes a device by its ID.
+     *
+     * @param id the ID of the device to delete
+     * @return a mono completing once the device is deleted
+     */
+    public Mono<Void> deleteDevice(Long id) {
+        return offload(() -> {
+            deviceService.deleteDevice(id, null);
+            return null;
+        }).then();
+    }
+
+    private static <T> Mono<T> offload(Callable<T> write) {
+        return Mono.fromCallable(write).subscribeOn(Schedulers.boundedElastic());
+    }
+}
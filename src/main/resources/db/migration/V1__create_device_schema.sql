@@ -0,0 +1,33 @@
+-- Devices; device_seq is pooled by Hibernate, its increment matches the allocation size of Device
+create sequence device_seq start with 1 increment by 50;
+
+create table device (
+    id bigint not null,
+    name varchar(255),
+    brand varchar(255),
+    creation_time timestamp(6),
+    brand_normalized varchar(255),
+    version bigint,
+    last_modified timestamp(6),
+    primary key (id)
+);
+
+create index idx_device_brand on device (brand, id);
+create index idx_device_brand_normalized on device (brand_normalized, id);
+create index idx_device_name on device (name);
+
+-- Change feed (transactional outbox); numbers are taken one at a time by DeviceChangeFeed
+create sequence device_change_seq start with 1 increment by 1;
+
+create table device_change (
+    seq bigint not null,
+    device_id bigint,
+    type varchar(16),
+    name varchar(255),
+    brand varchar(255),
+    version bigint,
+    occurred_at timestamp(6),
+    primary key (seq)
+);
+
+create index idx_device_change_occurred_at on device_change (occurred_at);
@@ -0,0 +1,2 @@
+-- Creation-time range queries, ordered by creation time then id for keyset pagination
+create index idx_device_creation_time on device (creation_time, id);
@@ -0,0 +1,106 @@
+package com.example.deviceservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionLimitFilterTest {
+
+    @Test
+    public void testRequestPassesWithinLimit() throws Exception {
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(10), new ObjectMapper(), Set.of());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/devices/1"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void testRequestRejectedWhenLimitReached() throws Exception {
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(50), new ObjectMapper(), Set.of());
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<?> blocked = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/devices/1"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            inFlight.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+            inFlight.await();
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/devices/2"), rejected, new MockFilterChain());
+
+            assertThat(rejected.getStatus()).isEqualTo(503);
+            assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+            assertThat(rejected.getContentAsString())
+                    .contains("\"status\":503", "\"detail\":\"Too many concurrent requests\"", "\"instance\":\"/devices/2\"");
+
+            release.countDown();
+            blocked.get();
+            MockHttpServletResponse accepted = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/devices/3"), accepted, new MockFilterChain());
+            assertThat(accepted.getStatus()).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncRequestKeepsPermitUntilComplete() throws Exception {
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(10), new ObjectMapper(), Set.of());
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/devices/stream");
+        streaming.setAsyncSupported(true);
+
+        filter.doFilter(streaming, new MockHttpServletResponse(),
+                (request, response) -> request.startAsync(request, response));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/devices/1"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        ((MockAsyncContext) streaming.getAsyncContext()).complete();
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/devices/1"), accepted, new MockFilterChain());
+        assertThat(accepted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void testLongPollsDoNotBlockOtherRequests() throws Exception {
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(10), new ObjectMapper(),
+                Set.of("/devices/changes"));
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest longPoll = new MockHttpServletRequest("GET", "/devices/changes");
+            longPoll.setAsyncSupported(true);
+            filter.doFilter(longPoll, new MockHttpServletResponse(),
+                    (request, response) -> request.startAsync(request, response));
+            assertThat(longPoll.isAsyncStarted()).isTrue();
+        }
+
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/devices/1"), accepted, new MockFilterChain());
+        assertThat(accepted.getStatus()).isEqualTo(200);
+    }
+}
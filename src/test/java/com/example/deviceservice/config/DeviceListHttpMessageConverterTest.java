@@ -0,0 +1,83 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.model.Device;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the application's ObjectMapper, with its {@code spring.jackson.*} settings.
+ */
+@JsonTest
+public class DeviceListHttpMessageConverterTest {
+    private static final Type DEVICE_LIST = ResolvableType.forClassWithGenerics(List.class, Device.class).getType();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private DeviceListHttpMessageConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        converter = new DeviceListHttpMessageConverter(objectMapper);
+    }
+
+    @Test
+    public void testOutputMatchesJackson() throws Exception {
+        LocalDateTime created = LocalDateTime.of(2024, 7, 1, 1, 13, 1, 722_000_000);
+        Device first = new Device(1L, "Device \"1\"", "BrandÄ", created);
+        first.setLastModified(LocalDateTime.of(2024, 7, 2, 9, 0));
+        Device second = new Device(2L, null, "BrandB", created);
+        Device third = new Device(3L, "Device3", "BrandB", created.plusNanos(1));
+        List<Device> devices = new ArrayList<>(List.of(first, second, third));
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(devices, DEVICE_LIST, MediaType.APPLICATION_JSON, message);
+
+        assertThat(message.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(devices));
+        assertThat(message.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    public void testOnlyWritesDeviceLists() {
+        Type stringList = ResolvableType.forClassWithGenerics(List.class, String.class).getType();
+
+        assertThat(converter.canWrite(DEVICE_LIST, ArrayList.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(DEVICE_LIST, ArrayList.class, MediaType.APPLICATION_XML)).isFalse();
+        assertThat(converter.canWrite(stringList, ArrayList.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(Device.class, Device.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(DEVICE_LIST, null, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @Test
+    public void testDeclinesListsWhenObjectMapperWritesDevicesDifferently() {
+        ObjectMapper snakeCase = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build();
+        ObjectMapper timestamps = Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        assertThat(new DeviceListHttpMessageConverter(snakeCase)
+                .canWrite(DEVICE_LIST, ArrayList.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(new DeviceListHttpMessageConverter(timestamps)
+                .canWrite(DEVICE_LIST, ArrayList.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.model.Device;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeviceRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    public void testBodiesAreRegisteredForBinding() throws Exception {
+        new DeviceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Device.class.getMethod("getName"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(DeviceDto.class.getMethod("brand"))).accepts(hints);
+    }
+
+    @Test
+    public void testProjectionsAndInspectorCanBeInstantiated() {
+        new DeviceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(DeviceView.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(DeviceStamp.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(QueryCountInspector.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    public void testMigrationsAreIncluded() {
+        new DeviceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V1__create_device_schema.sql"))
+                .accepts(hints);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.deviceservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryCountInterceptorTest {
+
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    private final QueryCountInterceptor interceptor = new QueryCountInterceptor();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        QueryCountInspector.unbind();
+    }
+
+    @Test
+    public void testStatementsOfAsyncRequestAreCountedAcrossThreads() throws Exception {
+        MockHttpServletRequest request = request("/devices/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select 1");
+        // The streaming body runs on the application executor, after the container thread is released
+        CompletableFuture<Void> body = CompletableFuture.runAsync(QueryCountInspector.propagate(() -> {
+            inspector.inspect("select 2");
+            inspector.inspect("select 3");
+        }), executor);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        inspector.inspect("select for another request");
+        body.get(5, TimeUnit.SECONDS);
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(meterRegistry.get("device.http.queries").tag("uri", "/devices/stream").summary().totalAmount())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void testStatementsOutsideRequestsAreNotCounted() throws Exception {
+        CompletableFuture.runAsync(QueryCountInspector.propagate(() -> inspector.inspect("select 1")), executor)
+                .get(5, TimeUnit.SECONDS);
+        MockHttpServletRequest request = request("/devices");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(meterRegistry.get("device.http.queries").tag("uri", "/devices").summary().totalAmount())
+                .isZero();
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.deviceservice.config;
+
+import com.example.deviceservice.exception.RequestThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimitInterceptorTest {
+    private static final String PROXY = "10.0.0.100";
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RateLimitInterceptor(meterRegistry, "X-Client-Id", Set.of(PROXY), 1, 2, 100,
+                Map.of("GET /devices", 1, "GET /devices/stream", 1), clock::get);
+    }
+
+    @Test
+    public void testBurstThenRejectedUntilRefilled() {
+        assertThat(interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null)).isTrue();
+
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class)
+                .satisfies(e -> assertThat(((RequestThrottledException) e).getRetryAfterSeconds()).isEqualTo(1));
+        assertThat(meterRegistry.counter("device.rate-limit.shed", "reason", "rate", "uri", "/devices/{id}").count())
+                .isEqualTo(1);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    public void testBucketsArePerClientAndEndpoint() {
+        for (int i = 0; i < 2; i++) {
+            interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null);
+        }
+
+        assertThat(interceptor.preHandle(request("GET", "/devices/{id}", "b"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("DELETE", "/devices/{id}", "a"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    public void testClientFallsBackToRemoteAddress() {
+        MockHttpServletRequest first = request("GET", "/devices/{id}", null);
+        first.setRemoteAddr("10.0.0.1");
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+
+        MockHttpServletRequest other = request("GET", "/devices/{id}", null);
+        other.setRemoteAddr("10.0.0.2");
+        assertThat(interceptor.preHandle(other, new MockHttpServletResponse(), null)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(first, new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class);
+    }
+
+    @Test
+    public void testClientHeaderIsIgnoredUnlessSentByTrustedProxy() {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = request("GET", "/devices/{id}", "client-" + i);
+            request.setRemoteAddr("10.0.0.1");
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        }
+        MockHttpServletRequest spoofed = request("GET", "/devices/{id}", "client-2");
+        spoofed.setRemoteAddr("10.0.0.1");
+
+        assertThatThrownBy(() -> interceptor.preHandle(spoofed, new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class);
+    }
+
+    @Test
+    public void testUnmappedPathIsTaggedUnknown() {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/devices/unknown/" + i);
+            request.setRemoteAddr("10.0.0.1");
+            try {
+                interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            } catch (RequestThrottledException e) {
+                // The third is over the burst of the shared bucket
+            }
+        }
+
+        assertThat(meterRegistry.counter("device.rate-limit.shed", "reason", "rate", "uri", "UNKNOWN").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testStreamedResponseKeepsPermitUntilAsyncDispatchCompletes() {
+        MockHttpServletRequest streaming = request("GET", "/devices/stream", "a");
+        assertThat(interceptor.preHandle(streaming, new MockHttpServletResponse(), null)).isTrue();
+        // The initial dispatch ends without afterCompletion once the request has gone async
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", "/devices/stream", "b"), new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class);
+
+        streaming.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(streaming, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(streaming, new MockHttpServletResponse(), null, null);
+
+        assertThat(interceptor.preHandle(request("GET", "/devices/stream", "b"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    public void testConcurrencyLimitShedsUntilCompletion() {
+        MockHttpServletRequest inFlight = request("GET", "/devices", "a");
+        assertThat(interceptor.preHandle(inFlight, new MockHttpServletResponse(), null)).isTrue();
+
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", "/devices", "b"), new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class)
+                .hasMessageContaining("Too many concurrent requests");
+        assertThat(meterRegistry.counter("device.rate-limit.shed", "reason", "concurrency", "uri", "/devices").count())
+                .isEqualTo(1);
+
+        interceptor.afterCompletion(inFlight, new MockHttpServletResponse(), null, null);
+        interceptor.afterCompletion(inFlight, new MockHttpServletResponse(), null, null);
+        assertThat(interceptor.preHandle(request("GET", "/devices", "b"), new MockHttpServletResponse(), null)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", "/devices", "c"), new MockHttpServletResponse(), null))
+                .isInstanceOf(RequestThrottledException.class);
+    }
+
+    @Test
+    public void testAsyncDispatchIsNotCountedAgain() {
+        for (int i = 0; i < 2; i++) {
+            interceptor.preHandle(request("GET", "/devices/{id}", "a"), new MockHttpServletResponse(), null);
+        }
+        MockHttpServletRequest dispatch = request("GET", "/devices/{id}", "a");
+        dispatch.setDispatcherType(DispatcherType.ASYNC);
+
+        assertThat(interceptor.preHandle(dispatch, new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setRemoteAddr(PROXY);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceChangePage;
+import com.example.deviceservice.exception.ChangeFeedExpiredException;
+import com.example.deviceservice.model.DeviceChange;
+import com.example.deviceservice.service.DeviceChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeviceChangeController.class)
+@Import(SimpleMeterRegistry.class)
+public class DeviceChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DeviceChangeFeed changeFeed;
+
+    @Test
+    public void testGetChanges() throws Exception {
+        DeviceChange change = new DeviceChange(6L, 1L, DeviceChange.Type.UPDATED, "Device1", "BrandA", 2L,
+                LocalDateTime.now());
+        when(changeFeed.awaitChanges(5L, 100, Duration.ofSeconds(10)))
+                .thenReturn(CompletableFuture.completedFuture(new DeviceChangePage(List.of(change), 6L)));
+
+        MvcResult result = mockMvc.perform(get("/devices/changes?since=5&wait=10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].seq").value(6))
+                .andExpect(jsonPath("$.changes[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$.next").value(6));
+    }
+
+    @Test
+    public void testGetChangesFromReplayStart() throws Exception {
+        when(changeFeed.replayStart()).thenReturn(40L);
+        when(changeFeed.awaitChanges(40L, 10, Duration.ZERO))
+                .thenReturn(CompletableFuture.completedFuture(new DeviceChangePage(List.of(), 40L)));
+
+        MvcResult result = mockMvc.perform(get("/devices/changes?limit=10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes").isEmpty())
+                .andExpect(jsonPath("$.next").value(40));
+    }
+
+    @Test
+    public void testGetChangesExpired() throws Exception {
+        when(changeFeed.awaitChanges(1L, 100, Duration.ZERO)).thenThrow(new ChangeFeedExpiredException(1L, 50L, 90L));
+
+        mockMvc.perform(get("/devices/changes?since=1"))
+                .andExpect(status().isGone());
+    }
+}
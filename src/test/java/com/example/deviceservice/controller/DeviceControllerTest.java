@@ -1,32 +1,62 @@
 package com.example.deviceservice.controller;
 
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.BulkCreateResult;
+import com.example.deviceservice.dto.BulkDeleteRequest;
+import com.example.deviceservice.dto.BulkGetResult;
+import com.example.deviceservice.dto.BulkItemResult;
+import com.example.deviceservice.dto.BulkUpdateRequest;
+import com.example.deviceservice.dto.BulkWriteResult;
+import com.example.deviceservice.dto.DeviceCursorPage;
 import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DevicePage;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.exception.DeviceVersionConflictException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.exception.RequestThrottledException;
+import com.example.deviceservice.exception.WriteBehindQueueFullException;
 import com.example.deviceservice.model.Device;
 import com.example.deviceservice.service.DeviceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(DeviceController.class)
+@Import(SimpleMeterRegistry.class)
 public class DeviceControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private DeviceService deviceService;
 
@@ -54,9 +84,140 @@ public class DeviceControllerTest {
         verify(deviceService, times(1)).createDevice(any(DeviceDto.class));
     }
 
+    @Test
+    public void testAddDeviceRejectsInvalidBody() throws Exception {
+        mockMvc.perform(post("/devices/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Brand must not be null; Name must not be null"));
+
+        verify(deviceService, never()).createDevice(any(DeviceDto.class));
+    }
+
+    @Test
+    public void testAddDeviceRejectsMalformedJson() throws Exception {
+        mockMvc.perform(post("/devices/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    @Test
+    public void testMissingOrMalformedParameterIsBadRequest() throws Exception {
+        mockMvc.perform(get("/devices/created").param("to", "2024-05-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+        mockMvc.perform(get("/devices/page").param("size", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    public void testUnknownPathAndMethodAreClientErrors() throws Exception {
+        mockMvc.perform(get("/devices/1/unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+        mockMvc.perform(delete("/devices"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(jsonPath("$.status").value(405));
+    }
+
+    @Test
+    public void testAddDeviceWhenWriteBehindQueueIsFull() throws Exception {
+        when(deviceService.createDevice(any(DeviceDto.class)))
+                .thenThrow(new WriteBehindQueueFullException("Device registration queue is full"));
+
+        mockMvc.perform(post("/devices/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Device1\",\"brand\":\"BrandA\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.detail").value("Device registration queue is full"));
+    }
+
+    @Test
+    public void testAddDevices() throws Exception {
+        when(deviceService.createDevices(anyList())).thenReturn(BulkCreateResult.of(List.of(
+                BulkItemResult.created(0, 1L),
+                BulkItemResult.invalid(1, List.of("Brand must not be null")))));
+
+        mockMvc.perform(post("/devices/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Device1\",\"brand\":\"BrandA\"},{\"name\":\"Device2\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[1].errors[0]").value("Brand must not be null"));
+
+        verify(deviceService, times(1)).createDevices(anyList());
+    }
+
+    @Test
+    public void testAddDevicesInCbor() throws Exception {
+        when(deviceService.createDevices(List.of(deviceDto))).thenReturn(BulkCreateResult.of(List.of(
+                BulkItemResult.created(0, 1L))));
+        CBORMapper cborMapper = new CBORMapper();
+
+        byte[] response = mockMvc.perform(post("/devices/bulk")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(List.of(deviceDto))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode result = cborMapper.readTree(response);
+        assertThat(result.get("created").asInt()).isEqualTo(1);
+        assertThat(result.get("items").get(0).get("id").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testGetAllDevicesInCbor() throws Exception {
+        device.setCreationTime(LocalDateTime.of(2024, 7, 1, 1, 13, 1));
+        when(deviceService.findAllDevices()).thenReturn(List.of(device));
+
+        byte[] response = mockMvc.perform(get("/devices")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode devices = new CBORMapper().readTree(response);
+        assertThat(devices.get(0).get("name").asText()).isEqualTo("Device1");
+        // Same date representation as the JSON responses
+        assertThat(devices.get(0).get("creationTime").asText()).isEqualTo("2024-07-01T01:13:01");
+    }
+
+    @Test
+    public void testAddDevicesFromStream() throws Exception {
+        when(deviceService.createDevices(anyList())).thenReturn(BulkCreateResult.of(List.of(
+                BulkItemResult.created(0, 1L),
+                BulkItemResult.created(1, 2L))));
+
+        mockMvc.perform(post("/devices/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Device1\",\"brand\":\"BrandA\"}\n"
+                                + "not json\n"
+                                + "{\"name\":\"Device2\",\"brand\":\"BrandB\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[2].index").value(2))
+                .andExpect(jsonPath("$.items[2].id").value(2L));
+
+        verify(deviceService, times(1)).createDevices(anyList());
+    }
+
     @Test
     public void testGetDeviceById() throws Exception {
-        when(deviceService.findDeviceById(1L)).thenReturn(device);
+        when(deviceService.findDevice(1L)).thenReturn(Optional.of(device));
 
         mockMvc.perform(get("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -65,18 +226,74 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.name").value("Device1"))
                 .andExpect(jsonPath("$.brand").value("BrandA"));
 
-        verify(deviceService, times(1)).findDeviceById(1L);
+        verify(deviceService, times(1)).findDevice(1L);
+    }
+
+    @Test
+    public void testGetDeviceByIdSendsValidators() throws Exception {
+        device.setVersion(3L);
+        device.setLastModified(LocalDateTime.now());
+        when(deviceService.findDevice(1L)).thenReturn(Optional.of(device));
+
+        mockMvc.perform(get("/devices/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        verify(deviceService, never()).findDeviceStamp(anyLong());
+    }
+
+    @Test
+    public void testGetDeviceByIdNotModified() throws Exception {
+        when(deviceService.findDeviceStamp(1L)).thenReturn(Optional.of(new DeviceStamp(3L, LocalDateTime.now())));
+
+        mockMvc.perform(get("/devices/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(deviceService, never()).findDevice(anyLong());
+    }
+
+    @Test
+    public void testGetDeviceByIdModifiedSinceETag() throws Exception {
+        device.setVersion(4L);
+        when(deviceService.findDeviceStamp(1L)).thenReturn(Optional.of(new DeviceStamp(4L, LocalDateTime.now())));
+        when(deviceService.findDevice(1L)).thenReturn(Optional.of(device));
+
+        mockMvc.perform(get("/devices/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.id").value(1L));
     }
 
     @Test
     public void testGetDeviceByIdNotFound() throws Exception {
-        when(deviceService.findDeviceById(1L)).thenThrow(new DeviceNotFoundException(1L));
+        when(deviceService.findDevice(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("Device not found with id: 1"))
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(deviceService, times(1)).findDevice(1L);
+        assertThat(meterRegistry.counter("device.errors", "exception", "DeviceNotFoundException", "status", "404").count())
+                .isPositive();
+    }
+
+    @Test
+    public void testGetDeviceByIdNotFoundWithConditionalRequest() throws Exception {
+        when(deviceService.findDeviceStamp(1L)).thenReturn(Optional.empty());
 
-        verify(deviceService, times(1)).findDeviceById(1L);
+        mockMvc.perform(get("/devices/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(deviceService, never()).findDevice(anyLong());
     }
 
     @Test
@@ -92,6 +309,21 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$[0].brand").value("BrandA"));
 
         verify(deviceService, times(1)).findAllDevices();
+        assertThat(meterRegistry.find("device.http.queries").tag("uri", "/devices").summary()).isNotNull();
+    }
+
+    @Test
+    public void testThrottledRequestGetsTooManyRequests() throws Exception {
+        when(deviceService.findAllDevices())
+                .thenThrow(new RequestThrottledException("Too many concurrent requests for GET /devices", 3));
+
+        mockMvc.perform(get("/devices"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.detail").value("Too many concurrent requests for GET /devices"));
+
+        assertThat(meterRegistry.counter("device.errors", "exception", "RequestThrottledException", "status", "429").count())
+                .isPositive();
     }
 
     @Test
@@ -106,6 +338,173 @@ public class DeviceControllerTest {
         verify(deviceService, times(1)).findAllDevices();
     }
 
+    @Test
+    public void testGetDevicesPage() throws Exception {
+        when(deviceService.findDevicesPage("abc", 1)).thenReturn(new DeviceCursorPage(List.of(device), "def"));
+
+        mockMvc.perform(get("/devices/page?cursor=abc&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+
+        verify(deviceService, times(1)).findDevicesPage("abc", 1);
+    }
+
+    @Test
+    public void testGetDevicesPageInvalidCursor() throws Exception {
+        when(deviceService.findDevicesPage(eq("bad"), anyInt())).thenThrow(new InvalidDeviceRequestException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/devices/page?cursor=bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamDevices() throws Exception {
+        Device device2 = new Device(2L, "Device2", "BrandB", LocalDateTime.now());
+        doAnswer(invocation -> {
+            Consumer<Device> consumer = invocation.getArgument(0);
+            consumer.accept(device);
+            consumer.accept(device2);
+            return null;
+        }).when(deviceService).streamAllDevices(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/devices/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n"))
+                .hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+    }
+
+    @Test
+    public void testGetDevicesCreatedBetween() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(deviceService.findDevicesCreatedBetween(from, from.plusHours(1), "abc", 100))
+                .thenReturn(new DeviceCursorPage(List.of(device), "next"));
+
+        mockMvc.perform(get("/devices/created")
+                        .param("from", "2024-05-01T10:00:00")
+                        .param("to", "2024-05-01T11:00:00")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportDevicesCreatedBetweenAsCsv() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Device quoted = new Device(2L, "Device \"2\", large", "BrandB", from.plusMinutes(5));
+        doAnswer(invocation -> {
+            Consumer<Device> consumer = invocation.getArgument(2);
+            consumer.accept(quoted);
+            return null;
+        }).when(deviceService).streamDevicesCreatedBetween(eq(from), eq(from.plusHours(1)), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/devices/created/export")
+                        .param("from", "2024-05-01T10:00:00")
+                        .param("to", "2024-05-01T11:00:00")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"devices.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).isEqualTo("id,name,brand,creationTime,lastModified\r\n"
+                + "2,\"Device \"\"2\"\", large\",BrandB,2024-05-01T10:05:00,\r\n");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportDevicesCreatedBetweenAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Device> consumer = invocation.getArgument(2);
+            consumer.accept(device);
+            return null;
+        }).when(deviceService).streamDevicesCreatedBetween(any(LocalDateTime.class), any(LocalDateTime.class),
+                any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/devices/created/export")
+                        .param("from", "2024-05-01T10:00:00")
+                        .param("to", "2024-05-01T11:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).startsWith("{\"id\":1,").endsWith("}\n");
+    }
+
+    @Test
+    public void testExportDevicesCreatedBetweenRejectsInvalidInput() throws Exception {
+        mockMvc.perform(get("/devices/created/export")
+                        .param("from", "2024-05-01T10:00:00")
+                        .param("to", "2024-05-01T11:00:00")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Unknown export format: xml"));
+        mockMvc.perform(get("/devices/created/export")
+                        .param("from", "2024-05-01T11:00:00")
+                        .param("to", "2024-05-01T10:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    public void testGetDeviceViewByIdWithFields() throws Exception {
+        when(deviceService.findDeviceView(1L)).thenReturn(DeviceView.of(device));
+
+        mockMvc.perform(get("/devices/views/1").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.name").value("Device1"))
+                .andExpect(jsonPath("$.brand").doesNotExist())
+                .andExpect(jsonPath("$.creationTime").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllDeviceViewsWithoutFields() throws Exception {
+        when(deviceService.findAllDeviceViews()).thenReturn(List.of(DeviceView.of(device)));
+
+        mockMvc.perform(get("/devices/views"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].brand").value("BrandA"))
+                .andExpect(jsonPath("$[0].creationTime").exists());
+    }
+
+    @Test
+    public void testSearchDeviceViewsByBrandWithFields() throws Exception {
+        when(deviceService.findDeviceViewsByBrand("BrandA")).thenReturn(List.of(DeviceView.of(device)));
+
+        mockMvc.perform(get("/devices/views/brand/BrandA").param("fields", "brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].brand").value("BrandA"))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+    }
+
+    @Test
+    public void testGetDeviceViewRejectsUnknownField() throws Exception {
+        mockMvc.perform(get("/devices/views").param("fields", "id,serial"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Unknown device field: serial"));
+
+        verify(deviceService, never()).findAllDeviceViews();
+    }
+
     @Test
     public void testSearchDevicesByBrand() throws Exception {
         List<Device> devices = Arrays.asList(device);
@@ -121,9 +520,35 @@ public class DeviceControllerTest {
         verify(deviceService, times(1)).findDevicesByBrand("BrandA");
     }
 
+    @Test
+    public void testSearchDevicesByBrandNotModified() throws Exception {
+        BrandStamp stamp = new BrandStamp(1L, 1L, 0L, LocalDateTime.now());
+        when(deviceService.findBrandStamp("BrandA")).thenReturn(stamp);
+
+        mockMvc.perform(get("/devices/brand/BrandA").header("If-None-Match", stamp.etag()))
+                .andExpect(status().isNotModified());
+
+        verify(deviceService, never()).findDevicesByBrand(anyString());
+    }
+
+    @Test
+    public void testSearchDevicesByBrandPage() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 20, Sort.by("name"));
+        when(deviceService.searchDevicesByBrand("bra", true, true, pageable))
+                .thenReturn(new DevicePage(List.of(device), 0, 20, false));
+
+        mockMvc.perform(get("/devices/brand/bra/page?ignoreCase=true&prefix=true&page=0&size=20&sort=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].brand").value("BrandA"))
+                .andExpect(jsonPath("$.items[0].brandNormalized").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(deviceService, times(1)).searchDevicesByBrand("bra", true, true, pageable);
+    }
+
     @Test
     public void testUpdateDevice() throws Exception {
-        when(deviceService.updateDevice(anyLong(), any(DeviceDto.class))).thenReturn(device);
+        when(deviceService.updateDevice(anyLong(), any(DeviceDto.class), isNull())).thenReturn(device);
 
         mockMvc.perform(put("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -133,13 +558,49 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.name").value("Device1"))
                 .andExpect(jsonPath("$.brand").value("BrandA"));
 
-        verify(deviceService, times(1)).updateDevice(anyLong(), any(DeviceDto.class));
+        verify(deviceService, times(1)).updateDevice(anyLong(), any(DeviceDto.class), isNull());
+    }
+
+    @Test
+    public void testUpdateDeviceIfMatchConflict() throws Exception {
+        when(deviceService.updateDevice(eq(1L), any(DeviceDto.class), eq(2L)))
+                .thenThrow(new DeviceVersionConflictException(1L, 2L));
+
+        mockMvc.perform(put("/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"2\"")
+                        .content("{\"name\":\"UpdatedDevice\",\"brand\":\"UpdatedBrand\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testUpdateDeviceRejectsWeakIfMatch() throws Exception {
+        mockMvc.perform(put("/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "W/\"2\"")
+                        .content("{\"name\":\"UpdatedDevice\",\"brand\":\"UpdatedBrand\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    public void testUpdateDeviceReturnMinimal() throws Exception {
+        mockMvc.perform(put("/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Prefer", "return=minimal")
+                        .content("{\"name\":\"UpdatedDevice\",\"brand\":\"UpdatedBrand\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Preference-Applied", "return=minimal"));
+
+        verify(deviceService, times(1)).applyUpdate(anyLong(), any(DeviceDto.class), eq(false), isNull());
+        verify(deviceService, never()).updateDevice(anyLong(), any(DeviceDto.class), isNull());
     }
 
     @Test
     public void testPartialUpdateDevice() throws Exception {
-        when(deviceService.findDeviceById(anyLong())).thenReturn(device);
-        when(deviceService.updateDevice(anyLong(), any(DeviceDto.class))).thenReturn(device);
+        Device patched = new Device(1L, "PartiallyUpdatedDevice", "BrandA", device.getCreationTime());
+        when(deviceService.patchDevice(1L, new DeviceDto("PartiallyUpdatedDevice", null), null)).thenReturn(patched);
 
         mockMvc.perform(patch("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -149,29 +610,113 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.name").value("PartiallyUpdatedDevice"))
                 .andExpect(jsonPath("$.brand").value("BrandA"));
 
-        verify(deviceService, times(1)).findDeviceById(anyLong());
-        verify(deviceService, times(1)).updateDevice(anyLong(), any(DeviceDto.class));
+        verify(deviceService, times(1)).patchDevice(1L, new DeviceDto("PartiallyUpdatedDevice", null), null);
+        verify(deviceService, never()).findDevice(anyLong());
+    }
+
+    @Test
+    public void testPartialUpdateDeviceReturnMinimal() throws Exception {
+        mockMvc.perform(patch("/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Prefer", "return=minimal")
+                        .content("{\"brand\":\"BrandB\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(deviceService, times(1)).applyUpdate(1L, new DeviceDto(null, "BrandB"), true, null);
+    }
+
+    @Test
+    public void testPartialUpdateDeviceNotFound() throws Exception {
+        when(deviceService.patchDevice(anyLong(), any(DeviceDto.class), isNull())).thenThrow(new DeviceNotFoundException(1L));
+
+        mockMvc.perform(patch("/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"PartiallyUpdatedDevice\"}"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     public void testDeleteDevice() throws Exception {
-        doNothing().when(deviceService).deleteDevice(1L);
+        doNothing().when(deviceService).deleteDevice(1L, null);
 
         mockMvc.perform(delete("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(deviceService, times(1)).deleteDevice(1L);
+        verify(deviceService, times(1)).deleteDevice(1L, null);
+    }
+
+    @Test
+    public void testBulkUpdateDevicesByBrand() throws Exception {
+        BulkUpdateRequest request = new BulkUpdateRequest(null, "BrandA", new DeviceDto(null, "BrandB"));
+        when(deviceService.updateDevices(request)).thenReturn(new BulkWriteResult(3, List.of()));
+
+        mockMvc.perform(post("/devices/bulk/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brand\":\"BrandA\",\"set\":{\"brand\":\"BrandB\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(3))
+                .andExpect(jsonPath("$.notFound").isEmpty());
+    }
+
+    @Test
+    public void testBulkDeleteDevicesByIds() throws Exception {
+        when(deviceService.deleteDevices(new BulkDeleteRequest(List.of(1L, 2L), null)))
+                .thenReturn(new BulkWriteResult(1, List.of(2L)));
+
+        mockMvc.perform(post("/devices/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(2));
+    }
+
+    @Test
+    public void testBulkGetDevices() throws Exception {
+        when(deviceService.findDevicesByIds(List.of(1L, 2L)))
+                .thenReturn(new BulkGetResult(List.of(device), List.of(2L)));
+
+        mockMvc.perform(post("/devices/bulk/get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices[0].id").value(1))
+                .andExpect(jsonPath("$.devices[0].name").value("Device1"))
+                .andExpect(jsonPath("$.notFound[0]").value(2));
+    }
+
+    @Test
+    public void testBulkGetDevicesWithoutIds() throws Exception {
+        when(deviceService.findDevicesByIds(null))
+                .thenThrow(new InvalidDeviceRequestException("Ids must be given and must not be null"));
+
+        mockMvc.perform(post("/devices/bulk/get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Ids must be given and must not be null"));
+    }
+
+    @Test
+    public void testBulkDeleteDevicesInvalidSelection() throws Exception {
+        when(deviceService.deleteDevices(new BulkDeleteRequest(null, null)))
+                .thenThrow(new InvalidDeviceRequestException("Exactly one of ids and brand must be given"));
+
+        mockMvc.perform(post("/devices/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     public void testDeleteDeviceNotFound() throws Exception {
-        doThrow(new DeviceNotFoundException(1L)).when(deviceService).deleteDevice(1L);
+        doThrow(new DeviceNotFoundException(1L)).when(deviceService).deleteDevice(1L, null);
 
         mockMvc.perform(delete("/devices/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(deviceService, times(1)).deleteDevice(1L);
+        verify(deviceService, times(1)).deleteDevice(1L, null);
     }
 }
@@ -0,0 +1,62 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceSearchPage;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.service.DeviceSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeviceSearchController.class)
+@Import(SimpleMeterRegistry.class)
+public class DeviceSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DeviceSearchIndex searchIndex;
+
+    @Test
+    public void testSearch() throws Exception {
+        when(searchIndex.search("pixle", 1, 5)).thenReturn(new DeviceSearchPage(List.of(
+                new DeviceSearchPage.Hit(7L, "Pixel 8", "Google", LocalDateTime.of(2024, 5, 1, 10, 0), 0.4)),
+                1, 5, 6));
+
+        mockMvc.perform(get("/devices/search?q=pixle&page=1&size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.items[0].name").value("Pixel 8"))
+                .andExpect(jsonPath("$.items[0].score").value(0.4))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.total").value(6));
+    }
+
+    @Test
+    public void testSearchDefaultsToFirstPage() throws Exception {
+        when(searchIndex.search("pixel", 0, 20)).thenReturn(new DeviceSearchPage(List.of(), 0, 20, 0));
+
+        mockMvc.perform(get("/devices/search?q=pixel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    public void testSearchWithoutLettersIsRejected() throws Exception {
+        when(searchIndex.search("--", 0, 20)).thenThrow(new InvalidDeviceRequestException("Query must contain a letter or digit"));
+
+        mockMvc.perform(get("/devices/search?q=--"))
+                .andExpect(status().isBadRequest());
+    }
+}
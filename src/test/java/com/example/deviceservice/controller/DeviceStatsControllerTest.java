@@ -0,0 +1,57 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceStats;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.service.DeviceStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeviceStatsController.class)
+@Import(SimpleMeterRegistry.class)
+public class DeviceStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DeviceStatistics statistics;
+
+    @Test
+    public void testGetStats() throws Exception {
+        LocalDateTime hour = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(statistics.getStats(1, hour, null)).thenReturn(new DeviceStats(3, Map.of("BrandA", 2L, "BrandB", 1L),
+                List.of(new DeviceStats.BrandCount("BrandA", 2)), 3600,
+                List.of(new DeviceStats.CreationBucket(hour, 3))));
+
+        mockMvc.perform(get("/devices/stats?top=1&from=2024-05-01T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.brands.BrandB").value(1))
+                .andExpect(jsonPath("$.topBrands[0].brand").value("BrandA"))
+                .andExpect(jsonPath("$.topBrands[0].count").value(2))
+                .andExpect(jsonPath("$.bucketSeconds").value(3600))
+                .andExpect(jsonPath("$.created[0].start").value("2024-05-01T10:00:00"))
+                .andExpect(jsonPath("$.created[0].count").value(3));
+    }
+
+    @Test
+    public void testGetStatsInvalidTop() throws Exception {
+        when(statistics.getStats(0, null, null)).thenThrow(new InvalidDeviceRequestException("Top must be between 1 and 1000"));
+
+        mockMvc.perform(get("/devices/stats?top=0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.deviceservice.controller;
+
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.service.ReactiveDeviceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveDeviceController.class)
+@Import(SimpleMeterRegistry.class)
+public class ReactiveDeviceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveDeviceService reactiveDeviceService;
+
+    private Device device;
+
+    @BeforeEach
+    public void setUp() {
+        device = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
+    }
+
+    @Test
+    public void testAddDevice() throws Exception {
+        when(reactiveDeviceService.createDevice(any(DeviceDto.class))).thenReturn(Mono.just(device));
+
+        MvcResult result = mockMvc.perform(post("/reactive/devices/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Device1\",\"brand\":\"BrandA\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.brand").value("BrandA"));
+    }
+
+    @Test
+    public void testAddDeviceRejectsInvalidBody() throws Exception {
+        mockMvc.perform(post("/reactive/devices/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Device1\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Brand must not be null"));
+
+        verify(reactiveDeviceService, never()).createDevice(any(DeviceDto.class));
+    }
+
+    @Test
+    public void testGetDeviceById() throws Exception {
+        when(reactiveDeviceService.findDeviceById(1L)).thenReturn(Mono.just(device));
+
+        MvcResult result = mockMvc.perform(get("/reactive/devices/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Device1"));
+    }
+
+    @Test
+    public void testGetDeviceByIdNotFound() throws Exception {
+        when(reactiveDeviceService.findDeviceById(1L)).thenReturn(Mono.error(new DeviceNotFoundException(1L)));
+
+        MvcResult result = mockMvc.perform(get("/reactive/devices/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Device not found with id: 1"));
+    }
+
+    @Test
+    public void testGetAllDevicesStreamsNdjson() throws Exception {
+        Device device2 = new Device(2L, "Device2", "BrandB", LocalDateTime.now());
+        when(reactiveDeviceService.findAllDevices()).thenReturn(Flux.just(device, device2));
+
+        MvcResult result = mockMvc.perform(get("/reactive/devices").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertThat(result.getResponse().getContentType()).startsWith("application/x-ndjson");
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":1");
+        assertThat(lines[1]).contains("\"id\":2");
+    }
+
+    @Test
+    public void testSearchDevicesByBrand() throws Exception {
+        when(reactiveDeviceService.findDevicesByBrand("BrandA")).thenReturn(Flux.just(device));
+
+        MvcResult result = mockMvc.perform(get("/reactive/devices/brand/BrandA").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertThat(result.getResponse().getContentAsString()).contains("\"brand\":\"BrandA\"");
+    }
+
+    @Test
+    public void testUpdateDevice() throws Exception {
+        when(reactiveDeviceService.updateDevice(eq(1L), any(DeviceDto.class))).thenReturn(Mono.just(device));
+
+        MvcResult result = mockMvc.perform(put("/reactive/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Device1\",\"brand\":\"BrandA\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    public void testPartialUpdateDevice() throws Exception {
+        when(reactiveDeviceService.patchDevice(eq(1L), any(DeviceDto.class))).thenReturn(Mono.just(device));
+
+        MvcResult result = mockMvc.perform(patch("/reactive/devices/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Device1\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testDeleteDevice() throws Exception {
+        when(reactiveDeviceService.deleteDevice(1L)).thenReturn(Mono.empty());
+
+        MvcResult result = mockMvc.perform(delete("/reactive/devices/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -1,13 +1,24 @@
 package com.example.deviceservice.repository;
 
+import com.example.deviceservice.dto.BrandStamp;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.model.Device;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,15 +30,19 @@ public class DeviceRepositoryTest {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Device device1;
     private Device device2;
 
     @BeforeEach
     public void setUp() {
-        device1 = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
-        device2 = new Device(2L, "Device2", "BrandB", LocalDateTime.now());
-        deviceRepository.save(device1);
-        deviceRepository.save(device2);
+        device1 = deviceRepository.save(new Device(null, "Device1", "BrandA", LocalDateTime.now()));
+        device2 = deviceRepository.save(new Device(null, "Device2", "BrandB", LocalDateTime.now()));
     }
 
     @Test
@@ -44,6 +59,105 @@ public class DeviceRepositoryTest {
         assertThat(foundDevice.getName()).isEqualTo("Device3");
     }
 
+    @Test
+    public void testSaveAllAssignsSequenceIds() {
+        List<Device> saved = deviceRepository.saveAll(List.of(
+                new Device(null, "Device3", "BrandC", LocalDateTime.now()),
+                new Device(null, "Device4", "BrandC", LocalDateTime.now())));
+        deviceRepository.flush();
+        assertThat(saved).extracting(Device::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(deviceRepository.findByBrand("BrandC")).hasSize(2);
+    }
+
+    @Test
+    public void testFindByIdGreaterThanOrderByIdAsc() {
+        List<Device> all = deviceRepository.findAll();
+        Long firstId = all.stream().map(Device::getId).min(Long::compare).orElseThrow();
+
+        List<Device> page = deviceRepository.findByIdGreaterThanOrderByIdAsc(firstId, Limit.of(10));
+
+        assertThat(page).extracting(Device::getName).containsExactly("Device2");
+    }
+
+    @Test
+    public void testFindCreatedBetweenPagesByCreationTimeThenId() {
+        LocalDateTime hour = LocalDateTime.of(2024, 5, 1, 10, 0);
+        deviceRepository.save(new Device(null, "Device3", "BrandC", LocalDateTime.now()));
+        deviceRepository.flush();
+        // Creation times are set by Hibernate on insert, so the test times are written directly
+        jdbcTemplate.update("update device set creation_time = ? where name = 'Device1'", hour.plusMinutes(30));
+        jdbcTemplate.update("update device set creation_time = ? where name = 'Device2'", hour.plusMinutes(10));
+        jdbcTemplate.update("update device set creation_time = ? where name = 'Device3'", hour.plusHours(2));
+        // The managed fixtures still hold the generated times, so they are detached to be read back
+        entityManager.clear();
+
+        List<Device> range = deviceRepository.findCreatedBetween(hour, hour.plusHours(1), 0L, Limit.of(10));
+        assertThat(range).extracting(Device::getName).containsExactly("Device2", "Device1");
+
+        Device first = range.get(0);
+        List<Device> next = deviceRepository.findCreatedBetween(first.getCreationTime(), hour.plusHours(1),
+                first.getId(), Limit.of(10));
+        assertThat(next).extracting(Device::getName).containsExactly("Device1");
+
+        try (var streamed = deviceRepository.streamCreatedBetween(hour, hour.plusHours(3))) {
+            assertThat(streamed.map(Device::getName)).containsExactly("Device2", "Device1", "Device3");
+        }
+    }
+
+    @Test
+    public void testFindByBrandNormalizedIgnoresCase() {
+        deviceRepository.save(new Device(null, "Device3", "branda", LocalDateTime.now()));
+        deviceRepository.flush();
+
+        Slice<Device> page = deviceRepository.findByBrandNormalized(Device.normalize("BRANDA"),
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertThat(page.getContent()).extracting(Device::getName).containsExactly("Device1", "Device3");
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testFindByBrandNormalizedStartingWith() {
+        deviceRepository.save(new Device(null, "Device3", "Brand_X", LocalDateTime.now()));
+        deviceRepository.flush();
+
+        Slice<Device> page = deviceRepository.findByBrandNormalizedStartingWith("brand_", PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(page.getContent()).extracting(Device::getName).containsExactly("Device3");
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testFindByBrandPaged() {
+        Slice<Device> page = deviceRepository.findByBrandStartingWith("Brand", PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void testBrandAndNameIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name = 'DEVICE'", String.class);
+        assertThat(indexes).contains("IDX_DEVICE_BRAND", "IDX_DEVICE_BRAND_NORMALIZED", "IDX_DEVICE_NAME");
+    }
+
+    @Test
+    public void testFindViewById() {
+        DeviceView view = deviceRepository.findViewById(device1.getId()).orElseThrow();
+
+        assertThat(view.name()).isEqualTo("Device1");
+        assertThat(view.brand()).isEqualTo("BrandA");
+        assertThat(view.creationTime()).isNotNull();
+        assertThat(deviceRepository.findViewById(-1L)).isEmpty();
+    }
+
+    @Test
+    public void testFindAllViewsAndViewsByBrand() {
+        assertThat(deviceRepository.findAllViews()).extracting(DeviceView::name).containsExactly("Device1", "Device2");
+        assertThat(deviceRepository.findViewsByBrand("BrandB")).extracting(DeviceView::name).containsExactly("Device2");
+    }
+
     @Test
     public void testFindAll() {
         List<Device> allDevices = deviceRepository.findAll();
@@ -57,6 +171,74 @@ public class DeviceRepositoryTest {
         assertThat(allDevices).isEmpty();
     }
 
+    @Test
+    public void testPatchNameAndBrandKeepsNullFields() {
+        Long id = deviceRepository.findByBrand("BrandA").get(0).getId();
+
+        int updated = deviceRepository.patchNameAndBrand(id, null, "BrandZ", Device.normalize("BrandZ"),
+                null, LocalDateTime.now());
+
+        Device patched = deviceRepository.findById(id).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(patched.getName()).isEqualTo("Device1");
+        assertThat(patched.getBrand()).isEqualTo("BrandZ");
+        assertThat(patched.getBrandNormalized()).isEqualTo("brandz");
+    }
+
+    @Test
+    public void testUpdateNameAndBrandNotFound() {
+        assertThat(deviceRepository.updateNameAndBrand(999L, "Name", "Brand", "brand", null, LocalDateTime.now()))
+                .isZero();
+    }
+
+    @Test
+    public void testUpdateNameAndBrandChecksAndIncrementsVersion() {
+        Device device = deviceRepository.findByBrand("BrandA").get(0);
+        long version = device.getVersion();
+        LocalDateTime modified = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+
+        assertThat(deviceRepository.updateNameAndBrand(device.getId(), "Name", "Brand", "brand", version + 1, modified))
+                .isZero();
+        assertThat(deviceRepository.updateNameAndBrand(device.getId(), "Name", "Brand", "brand", version, modified))
+                .isEqualTo(1);
+
+        DeviceStamp stamp = deviceRepository.findStampById(device.getId()).orElseThrow();
+        assertThat(stamp.version()).isEqualTo(version + 1);
+        assertThat(stamp.lastModified()).isEqualTo(modified);
+    }
+
+    @Test
+    public void testFindVersionsByIdsReadsUpdatedVersions() {
+        Device device = deviceRepository.findByBrand("BrandA").get(0);
+        deviceRepository.patchNameAndBrandByIds(List.of(device.getId()), "Name", null, null, LocalDateTime.now());
+
+        assertThat(deviceRepository.findVersionsByIds(List.of(device.getId(), 999L)))
+                .containsExactly(new DeviceVersion(device.getId(), device.getVersion() + 1));
+    }
+
+    @Test
+    public void testFindBrandStampChangesWithDevices() {
+        BrandStamp before = deviceRepository.findBrandStamp("BrandA");
+        assertThat(before.count()).isEqualTo(1);
+        assertThat(deviceRepository.findBrandStamp("BrandX").count()).isZero();
+
+        deviceRepository.save(new Device(null, "Device3", "BrandA", LocalDateTime.now()));
+
+        assertThat(deviceRepository.findBrandStamp("BrandA").etag()).isNotEqualTo(before.etag());
+        assertThat(BrandStamp.of(deviceRepository.findByBrand("BrandA")).etag())
+                .isEqualTo(deviceRepository.findBrandStamp("BrandA").etag());
+    }
+
+    @Test
+    public void testDeleteDeviceByIdReportsRowCount() {
+        Long id = deviceRepository.findByBrand("BrandA").get(0).getId();
+
+        assertThat(deviceRepository.deleteDeviceById(id, 5L)).isZero();
+        assertThat(deviceRepository.deleteDeviceById(id, null)).isEqualTo(1);
+        assertThat(deviceRepository.deleteDeviceById(id, null)).isZero();
+        assertThat(deviceRepository.findAll()).hasSize(1);
+    }
+
     @Test
     public void testDeleteByIdNotFound() {
         deviceRepository.deleteById(999L); // Non-existent ID
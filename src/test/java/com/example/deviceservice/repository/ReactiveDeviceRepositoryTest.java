@@ -0,0 +1,85 @@
+package com.example.deviceservice.repository;
+
+import com.example.deviceservice.model.Device;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+@SpringBootTest
+public class ReactiveDeviceRepositoryTest {
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private ReactiveDeviceRepository reactiveDeviceRepository;
+
+    private Device device1;
+    private Device device2;
+
+    @BeforeEach
+    public void setUp() {
+        device1 = deviceRepository.save(new Device(null, "Device1", "BrandA", LocalDateTime.now()));
+        device2 = deviceRepository.save(new Device(null, "Device2", "BrandB", LocalDateTime.now()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    public void testFindByIdReadsDevicesWrittenThroughJpa() {
+        StepVerifier.create(reactiveDeviceRepository.findById(device1.getId()))
+                .expectNextMatches(device -> device.getName().equals("Device1")
+                        && device.getBrand().equals("BrandA")
+                        && device.getBrandNormalized().equals("branda")
+                        && device.getCreationTime() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testFindByIdReadsVersionAndLastModified() {
+        Device stored = deviceRepository.findById(device1.getId()).orElseThrow();
+
+        StepVerifier.create(reactiveDeviceRepository.findById(device1.getId()))
+                .expectNextMatches(device -> device.getVersion().equals(stored.getVersion())
+                        && device.getLastModified().equals(stored.getLastModified())
+                        && device.getCreationTime().equals(stored.getCreationTime()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testFindByIdNotFound() {
+        StepVerifier.create(reactiveDeviceRepository.findById(-1L))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testFindAllOrderedById() {
+        StepVerifier.create(reactiveDeviceRepository.findAll().map(Device::getId))
+                .expectNext(device1.getId(), device2.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    public void testFindAllHonoursDemand() {
+        StepVerifier.create(reactiveDeviceRepository.findAll().map(Device::getId), 1)
+                .expectNext(device1.getId())
+                .thenRequest(1)
+                .expectNext(device2.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    public void testFindByBrand() {
+        StepVerifier.create(reactiveDeviceRepository.findByBrand("BrandB").map(Device::getName))
+                .expectNext("Device2")
+                .verifyComplete();
+    }
+}
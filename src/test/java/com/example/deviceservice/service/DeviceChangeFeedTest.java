@@ -0,0 +1,139 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceChangePage;
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.exception.ChangeFeedExpiredException;
+import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.model.DeviceChange;
+import com.example.deviceservice.repository.DeviceChangeRepository;
+import com.example.deviceservice.repository.DeviceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "device.changes.compaction-interval=PT1H")
+@DirtiesContext
+public class DeviceChangeFeedTest {
+
+    @Autowired
+    private DeviceChangeFeed changeFeed;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceChangeRepository changeRepository;
+
+    @AfterEach
+    public void tearDown() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    public void testMutationsAreFedInOrder() {
+        long since = latest();
+        Device device = deviceService.createDevice(new DeviceDto("Device1", "BrandA"));
+        deviceService.patchDevice(device.getId(), new DeviceDto(null, "BrandB"), null);
+        deviceService.deleteDevice(device.getId(), null);
+
+        DeviceChangePage page = changeFeed.findChanges(since, 10);
+
+        assertThat(page.changes()).extracting(DeviceChange::getType).containsExactly(
+                DeviceChange.Type.CREATED, DeviceChange.Type.UPDATED, DeviceChange.Type.DELETED);
+        assertThat(page.changes()).allMatch(change -> change.getDeviceId().equals(device.getId()));
+        assertThat(page.changes().get(1).getName()).isEqualTo("Device1");
+        assertThat(page.changes().get(1).getBrand()).isEqualTo("BrandB");
+        assertThat(page.changes().get(1).getVersion()).isEqualTo(1L);
+        assertThat(page.next()).isEqualTo(page.changes().get(2).getSeq());
+        assertThat(changeFeed.findChanges(page.next(), 10).changes()).isEmpty();
+    }
+
+    @Test
+    public void testFailedWriteIsNotFed() {
+        long since = latest();
+
+        assertThatThrownBy(() -> deviceService.updateDevice(-1L, new DeviceDto("Device1", "BrandA"), null))
+                .isInstanceOf(DeviceNotFoundException.class);
+
+        assertThat(changeFeed.findChanges(since, 10).changes()).isEmpty();
+    }
+
+    @Test
+    public void testBulkCreateIsPaged() {
+        long since = latest();
+        deviceService.createDevices(List.of(new DeviceDto("Device1", "BrandA"), new DeviceDto("Device2", "BrandA"),
+                new DeviceDto("Device3", "BrandA")));
+
+        DeviceChangePage first = changeFeed.findChanges(since, 2);
+        DeviceChangePage second = changeFeed.findChanges(first.next(), 2);
+
+        assertThat(first.changes()).extracting(DeviceChange::getName).containsExactly("Device1", "Device2");
+        assertThat(second.changes()).extracting(DeviceChange::getName).containsExactly("Device3");
+    }
+
+    @Test
+    public void testAwaitChangesCompletesOnCommit() throws Exception {
+        long since = latest();
+
+        CompletableFuture<DeviceChangePage> result = changeFeed.awaitChanges(since, 10, Duration.ofSeconds(10));
+        assertThat(result).isNotDone();
+        deviceService.createDevice(new DeviceDto("Device1", "BrandA"));
+
+        assertThat(result.get(5, TimeUnit.SECONDS).changes()).extracting(DeviceChange::getName)
+                .containsExactly("Device1");
+    }
+
+    @Test
+    public void testAwaitChangesTimesOutWithEmptyPage() throws Exception {
+        long since = latest();
+
+        DeviceChangePage page = changeFeed.awaitChanges(since, 10, Duration.ofMillis(100)).get(5, TimeUnit.SECONDS);
+
+        assertThat(page.changes()).isEmpty();
+        assertThat(page.next()).isEqualTo(since);
+    }
+
+    @Test
+    public void testCompactionExpiresOldPositions() {
+        long since = latest();
+        for (int i = 0; i < 5; i++) {
+            deviceService.createDevice(new DeviceDto("Device" + i, "BrandA"));
+        }
+        ReflectionTestUtils.setField(changeFeed, "maxEntries", 2L);
+        try {
+            changeFeed.compact();
+        } finally {
+            ReflectionTestUtils.setField(changeFeed, "maxEntries", 100000L);
+        }
+
+        assertThatThrownBy(() -> changeFeed.findChanges(since, 10)).isInstanceOf(ChangeFeedExpiredException.class);
+        assertThat(changeFeed.findChanges(changeFeed.replayStart(), 10).changes()).hasSize(2);
+        assertThat(changeRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPositionAheadOfFeedIsRejected() {
+        assertThatThrownBy(() -> changeFeed.findChanges(latest() + 1000, 10))
+                .isInstanceOf(ChangeFeedExpiredException.class);
+    }
+
+    private long latest() {
+        Long max = changeRepository.findMaxSeq();
+        return max == null ? changeFeed.replayStart() : max;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.repository.DeviceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeviceIndexLoaderTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private DeviceStatistics statistics;
+
+    @Mock
+    private DeviceSearchIndex searchIndex;
+
+    @InjectMocks
+    private DeviceIndexLoader loader;
+
+    @Test
+    public void testLoadFeedsStatisticsAndSearchIndexFromOneScan() {
+        ReflectionTestUtils.setField(loader, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        DeviceView device1 = new DeviceView(1L, "Pixel 8", "Google", LocalDateTime.now());
+        DeviceView device2 = new DeviceView(2L, "Galaxy S24", "Samsung", LocalDateTime.now());
+        when(deviceRepository.streamAllViews()).thenReturn(Stream.of(device1, device2));
+
+        loader.load();
+
+        verify(deviceRepository, times(1)).streamAllViews();
+        verify(statistics).load(device1);
+        verify(statistics).load(device2);
+        verify(searchIndex).load(device1);
+        verify(searchIndex).load(device2);
+    }
+}
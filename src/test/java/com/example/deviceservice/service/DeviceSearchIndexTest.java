@@ -0,0 +1,114 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceSearchPage;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.model.Device;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DeviceSearchIndexTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private final DeviceSearchIndex searchIndex = new DeviceSearchIndex();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "minScore", 0.3);
+        ReflectionTestUtils.setField(searchIndex, "maxPageSize", 100);
+        Stream.of(
+                new DeviceView(1L, "Pixel 8 Pro", "Google", CREATED),
+                new DeviceView(2L, "Galaxy S24", "Samsung", CREATED),
+                new DeviceView(3L, "Pixel Tablet", "Google", CREATED))
+                .forEach(searchIndex::load);
+    }
+
+    @Test
+    public void testTrigramsArePaddedAndFolded() {
+        assertThat(DeviceSearchIndex.trigrams("Café 8")).containsExactlyInAnyOrder("$ca", "caf", "afe", "fe$", "$8$");
+    }
+
+    @Test
+    public void testPartialQueryFindsDevices() {
+        DeviceSearchPage result = searchIndex.search("pix", 0, 10);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.items()).extracting(DeviceSearchPage.Hit::id).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void testMisspelledQueryFindsDevice() {
+        DeviceSearchPage result = searchIndex.search("galxy", 0, 10);
+
+        assertThat(result.items()).extracting(DeviceSearchPage.Hit::id).containsExactly(2L);
+        assertThat(result.items().get(0).name()).isEqualTo("Galaxy S24");
+    }
+
+    @Test
+    public void testCloserMatchRanksFirst() {
+        DeviceSearchPage result = searchIndex.search("pixel tablet", 0, 10);
+
+        assertThat(result.items()).extracting(DeviceSearchPage.Hit::id).containsExactly(3L, 1L);
+        assertThat(result.items().get(0).score()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testBrandIsSearched() {
+        assertThat(searchIndex.search("samsung", 0, 10).items())
+                .extracting(DeviceSearchPage.Hit::id).containsExactly(2L);
+    }
+
+    @Test
+    public void testPagination() {
+        DeviceSearchPage second = searchIndex.search("google", 1, 1);
+
+        assertThat(second.total()).isEqualTo(2);
+        assertThat(second.items()).extracting(DeviceSearchPage.Hit::id).containsExactly(3L);
+        assertThat(searchIndex.search("google", 2, 1).items()).isEmpty();
+    }
+
+    @Test
+    public void testWritesMaintainTheIndex() {
+        searchIndex.recordCreated(List.of(new Device(4L, "iPhone 15", "Apple", CREATED)));
+        searchIndex.recordUpdated(1L, 1, "Watch", null);
+        searchIndex.recordDeleted(3L);
+
+        assertThat(searchIndex.search("iphone", 0, 10).items()).extracting(DeviceSearchPage.Hit::id).containsExactly(4L);
+        assertThat(searchIndex.search("pixel", 0, 10).items()).isEmpty();
+        DeviceSearchPage watch = searchIndex.search("watch", 0, 10);
+        assertThat(watch.items()).extracting(DeviceSearchPage.Hit::brand).containsExactly("Google");
+    }
+
+    @Test
+    public void testOlderUpdateDoesNotUndoNewerOne() {
+        // Committed in version order, but their callbacks ran the other way around
+        searchIndex.recordUpdated(1L, 3, null, "Apple");
+        searchIndex.recordUpdated(1L, 2, "Watch", "Fitbit");
+        searchIndex.recordUpdated(List.of(new DeviceVersion(1L, 1L)), "Phone", null);
+
+        assertThat(searchIndex.search("fitbit", 0, 10).items()).isEmpty();
+        assertThat(searchIndex.search("pixel", 0, 10).items()).extracting(DeviceSearchPage.Hit::id).containsExactly(3L);
+        DeviceSearchPage watch = searchIndex.search("watch", 0, 10);
+        assertThat(watch.items()).extracting(DeviceSearchPage.Hit::id).containsExactly(1L);
+        assertThat(watch.items()).extracting(DeviceSearchPage.Hit::brand).containsExactly("Apple");
+    }
+
+    @Test
+    public void testInvalidQueriesAreRejected() {
+        assertThatThrownBy(() -> searchIndex.search("--", 0, 10))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("pixel", 0, 101))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("pixel", -1, 10))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.config.CacheConfig;
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class DeviceServiceCacheTest {
+
+    @MockBean
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Device device;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        device = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
+    }
+
+    @Test
+    public void testFindDeviceByIdIsCached() {
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+
+        deviceService.findDeviceById(1L);
+        Device cached = deviceService.findDeviceById(1L);
+
+        assertThat(cached).isEqualTo(device);
+        verify(deviceRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testFindDevicesByBrandIsCached() {
+        when(deviceRepository.findByBrand("BrandA")).thenReturn(List.of(device));
+
+        deviceService.findDevicesByBrand("BrandA");
+        deviceService.findDevicesByBrand("BrandA");
+
+        verify(deviceRepository, times(1)).findByBrand("BrandA");
+    }
+
+    @Test
+    public void testCreateDeviceEvictsBrand() {
+        when(deviceRepository.findByBrand("BrandA")).thenReturn(List.of(device));
+        when(deviceRepository.saveAndFlush(any(Device.class))).thenReturn(device);
+
+        deviceService.findDevicesByBrand("BrandA");
+        deviceService.createDevice(new DeviceDto("Device1", "BrandA"));
+        deviceService.findDevicesByBrand("BrandA");
+
+        verify(deviceRepository, times(2)).findByBrand("BrandA");
+        assertThat(cacheManager.getCache(CacheConfig.DEVICES).get(1L)).isNotNull();
+    }
+
+    @Test
+    public void testUpdateDeviceRefreshesCachedDevice() {
+        Device updated = new Device(1L, "Updated", "BrandB", device.getCreationTime());
+        updated.setVersion(1L);
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device)).thenReturn(Optional.of(updated));
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Updated"), eq("BrandB"), eq("brandb"),
+                isNull(), any(LocalDateTime.class))).thenReturn(1);
+
+        deviceService.findDeviceById(1L);
+        deviceService.updateDevice(1L, new DeviceDto("Updated", "BrandB"), null);
+
+        assertThat(deviceService.findDeviceById(1L).getName()).isEqualTo("Updated");
+        verify(deviceRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testDeleteDeviceEvictsDevice() {
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+        when(deviceRepository.deleteDeviceById(1L, null)).thenReturn(1);
+
+        deviceService.findDeviceById(1L);
+        deviceService.deleteDevice(1L, null);
+        deviceService.findDeviceById(1L);
+
+        verify(deviceRepository, times(2)).findById(1L);
+    }
+}
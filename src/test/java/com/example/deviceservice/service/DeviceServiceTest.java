@@ -1,21 +1,52 @@
 package com.example.deviceservice.service;
 
+import com.example.deviceservice.config.CacheConfig;
+import com.example.deviceservice.dto.BulkCreateResult;
+import com.example.deviceservice.dto.BulkDeleteRequest;
+import com.example.deviceservice.dto.BulkGetResult;
+import com.example.deviceservice.dto.BulkItemResult;
+import com.example.deviceservice.dto.BulkUpdateRequest;
+import com.example.deviceservice.dto.BulkWriteResult;
+import com.example.deviceservice.dto.DeviceCursorPage;
 import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.dto.DevicePage;
+import com.example.deviceservice.dto.DeviceStamp;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
 import com.example.deviceservice.exception.DeviceNotFoundException;
 import com.example.deviceservice.exception.DeviceServiceException;
+import com.example.deviceservice.exception.DeviceVersionConflictException;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.exception.WriteBehindQueueFullException;
 import com.example.deviceservice.model.Device;
 import com.example.deviceservice.repository.DeviceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -28,6 +59,18 @@ public class DeviceServiceTest {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DeviceChangeFeed changeFeed;
+
+    @Mock
+    private DeviceStatistics statistics;
+
+    @Mock
+    private DeviceSearchIndex searchIndex;
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -38,11 +81,19 @@ public class DeviceServiceTest {
     public void setUp() {
         device = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
         deviceDto = new DeviceDto("Device1", "BrandA");
+        ReflectionTestUtils.setField(deviceService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(deviceService, "bulkChunkSize", 2);
+        ReflectionTestUtils.setField(deviceService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(deviceService, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(deviceService, "cacheManager", new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(deviceService, "coalescer", new LookupCoalescer(new SimpleMeterRegistry(), true));
     }
 
     @Test
     public void testCreateDevice() {
-        when(deviceRepository.save(any(Device.class))).thenReturn(device);
+        when(deviceRepository.saveAndFlush(any(Device.class))).thenReturn(device);
 
         Device createdDevice = deviceService.createDevice(deviceDto);
 
@@ -51,18 +102,49 @@ public class DeviceServiceTest {
         assertThat(createdDevice.getName()).isEqualTo("Device1");
         assertThat(createdDevice.getBrand()).isEqualTo("BrandA");
 
-        verify(deviceRepository, times(1)).save(any(Device.class));
+        verify(deviceRepository, times(1)).saveAndFlush(any(Device.class));
+        verify(changeFeed, times(1)).recordCreated(List.of(device));
+        verify(statistics, times(1)).recordCreated(List.of(device));
+        verify(searchIndex, times(1)).recordCreated(List.of(device));
     }
 
     @Test
     public void testCreateDeviceThrowsException() {
-        when(deviceRepository.save(any(Device.class))).thenThrow(new RuntimeException("Database error"));
+        when(deviceRepository.saveAndFlush(any(Device.class))).thenThrow(new RuntimeException("Database error"));
 
         assertThatThrownBy(() -> deviceService.createDevice(deviceDto))
                 .isInstanceOf(DeviceServiceException.class)
                 .hasMessageContaining("Error creating device");
 
-        verify(deviceRepository, times(1)).save(any(Device.class));
+        verify(deviceRepository, times(1)).saveAndFlush(any(Device.class));
+    }
+
+    @Test
+    public void testCreateDevices() {
+        when(deviceRepository.save(any(Device.class))).thenReturn(device);
+
+        BulkCreateResult result = deviceService.createDevices(Arrays.asList(
+                deviceDto, new DeviceDto(null, "BrandA"), deviceDto, deviceDto));
+
+        assertThat(result.created()).isEqualTo(3);
+        assertThat(result.invalid()).isEqualTo(1);
+        assertThat(result.items()).extracting(BulkItemResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(result.items().get(1).status()).isEqualTo(BulkItemResult.Status.INVALID);
+        assertThat(result.items().get(1).errors()).containsExactly("Name must not be null");
+
+        verify(deviceRepository, times(3)).save(any(Device.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(changeFeed, times(2)).recordCreated(anyList());
+    }
+
+    @Test
+    public void testCreateDevicesThrowsException() {
+        when(deviceRepository.save(any(Device.class))).thenThrow(new RuntimeException("Database error"));
+
+        assertThatThrownBy(() -> deviceService.createDevices(List.of(deviceDto)))
+                .isInstanceOf(DeviceServiceException.class)
+                .hasMessageContaining("Error creating devices");
     }
 
     @Test
@@ -88,6 +170,68 @@ public class DeviceServiceTest {
         verify(deviceRepository, times(1)).findById(1L);
     }
 
+    @Test
+    public void testFindDevice() {
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+
+        assertThat(deviceService.findDevice(1L)).contains(device);
+    }
+
+    @Test
+    public void testFindDeviceMissingIsEmpty() {
+        when(deviceRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThat(deviceService.findDevice(1L)).isEmpty();
+    }
+
+    @Test
+    public void testDeviceNotFoundExceptionHasNoStackTrace() {
+        DeviceNotFoundException e = new DeviceNotFoundException(7L);
+
+        assertThat(e.getStackTrace()).isEmpty();
+        assertThat(e.getId()).isEqualTo(7L);
+        assertThat(e.getMessage()).isEqualTo("Device not found with id: 7");
+    }
+
+    @Test
+    public void testFindDeviceDoesNotWrapNotFound() {
+        when(deviceRepository.findById(1L)).thenThrow(new DeviceNotFoundException(1L));
+
+        assertThatThrownBy(() -> deviceService.findDevice(1L))
+                .isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    public void testFindDevicesByIdsKeepsRequestOrder() {
+        Device device2 = new Device(2L, "Device2", "BrandB", LocalDateTime.now());
+        Device device3 = new Device(3L, "Device3", "BrandA", LocalDateTime.now());
+        when(deviceRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(device3));
+        when(deviceRepository.findAllById(List.of(1L))).thenReturn(List.of(device));
+        // Cached devices are not queried again; the others are read in chunks of bulkChunkSize (2)
+        CacheManager cacheManager = (CacheManager) ReflectionTestUtils.getField(deviceService, "cacheManager");
+        cacheManager.getCache(CacheConfig.DEVICES).put(2L, device2);
+
+        BulkGetResult result = deviceService.findDevicesByIds(List.of(3L, 2L, 4L, 3L, 1L));
+
+        assertThat(result.devices()).containsExactly(device3, device2, device);
+        assertThat(result.notFound()).containsExactly(4L);
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testFindDevicesByIdsRejectsInvalidIds() {
+        ReflectionTestUtils.setField(deviceService, "maxPageSize", 2);
+
+        assertThatThrownBy(() -> deviceService.findDevicesByIds(null))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.findDevicesByIds(Arrays.asList(1L, null)))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.findDevicesByIds(List.of(1L, 2L, 3L)))
+                .isInstanceOf(InvalidDeviceRequestException.class)
+                .hasMessageContaining("At most 2");
+        verifyNoInteractions(deviceRepository);
+    }
+
     @Test
     public void testFindAllDevices() {
         when(deviceRepository.findAll()).thenReturn(Arrays.asList(device));
@@ -101,6 +245,132 @@ public class DeviceServiceTest {
         verify(deviceRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testFindDeviceView() {
+        DeviceView view = DeviceView.of(device);
+        when(deviceRepository.findViewById(1L)).thenReturn(Optional.of(view));
+
+        assertThat(deviceService.findDeviceView(1L)).isEqualTo(view);
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testFindDeviceViewNotFound() {
+        when(deviceRepository.findViewById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> deviceService.findDeviceView(1L))
+                .isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    public void testFindDeviceStamp() {
+        DeviceStamp stamp = new DeviceStamp(2L, LocalDateTime.now());
+        when(deviceRepository.findStampById(1L)).thenReturn(Optional.of(stamp));
+
+        assertThat(deviceService.findDeviceStamp(1L)).contains(stamp);
+        assertThat(stamp.etag()).isEqualTo("\"2\"");
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testFindDeviceStampNotFound() {
+        when(deviceRepository.findStampById(1L)).thenReturn(Optional.empty());
+
+        assertThat(deviceService.findDeviceStamp(1L)).isEmpty();
+    }
+
+    @Test
+    public void testFindAllDeviceViewsAndByBrand() {
+        List<DeviceView> views = List.of(DeviceView.of(device));
+        when(deviceRepository.findAllViews()).thenReturn(views);
+        when(deviceRepository.findViewsByBrand("BrandA")).thenReturn(views);
+
+        assertThat(deviceService.findAllDeviceViews()).isEqualTo(views);
+        assertThat(deviceService.findDeviceViewsByBrand("BrandA")).isEqualTo(views);
+    }
+
+    @Test
+    public void testFindDevicesPage() {
+        Device device2 = new Device(2L, "Device2", "BrandB", LocalDateTime.now());
+        when(deviceRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(device, device2));
+
+        DeviceCursorPage firstPage = deviceService.findDevicesPage(null, 1);
+
+        assertThat(firstPage.items()).containsExactly(device);
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        when(deviceRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2)))
+                .thenReturn(List.of(device2));
+
+        DeviceCursorPage lastPage = deviceService.findDevicesPage(firstPage.nextCursor(), 1);
+
+        assertThat(lastPage.items()).containsExactly(device2);
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    public void testFindDevicesCreatedBetween() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LocalDateTime to = from.plusHours(1);
+        device.setCreationTime(from.plusMinutes(5));
+        Device device2 = new Device(2L, "Device2", "BrandB", from.plusMinutes(5));
+        when(deviceRepository.findCreatedBetween(from, to, 0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(device, device2));
+
+        DeviceCursorPage firstPage = deviceService.findDevicesCreatedBetween(from, to, null, 1);
+
+        assertThat(firstPage.items()).containsExactly(device);
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        when(deviceRepository.findCreatedBetween(from.plusMinutes(5), to, 1L, Limit.of(2)))
+                .thenReturn(List.of(device2));
+
+        DeviceCursorPage lastPage = deviceService.findDevicesCreatedBetween(from, to, firstPage.nextCursor(), 1);
+
+        assertThat(lastPage.items()).containsExactly(device2);
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    public void testFindDevicesCreatedBetweenRejectsInvalidInput() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        assertThatThrownBy(() -> deviceService.findDevicesCreatedBetween(from, from, null, 10))
+                .isInstanceOf(InvalidDeviceRequestException.class)
+                .hasMessageContaining("From must be before to");
+        assertThatThrownBy(() -> deviceService.findDevicesCreatedBetween(from, from.plusHours(1), null, 0))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.findDevicesCreatedBetween(from, from.plusHours(1), "not-a-cursor", 10))
+                .isInstanceOf(InvalidDeviceRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verify(deviceRepository, never()).findCreatedBetween(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    public void testStreamDevicesCreatedBetween() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(deviceRepository.streamCreatedBetween(from, from.plusHours(1))).thenReturn(Stream.of(device));
+        List<Device> streamed = new ArrayList<>();
+
+        deviceService.streamDevicesCreatedBetween(from, from.plusHours(1), streamed::add);
+
+        assertThat(streamed).containsExactly(device);
+        verify(entityManager, times(1)).detach(device);
+    }
+
+    @Test
+    public void testFindDevicesPageRejectsInvalidInput() {
+        assertThatThrownBy(() -> deviceService.findDevicesPage(null, 101))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.findDevicesPage("not-a-cursor", 10))
+                .isInstanceOf(InvalidDeviceRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verifyNoInteractions(deviceRepository);
+    }
+
     @Test
     public void testFindDevicesByBrand() {
         when(deviceRepository.findByBrand("BrandA")).thenReturn(Arrays.asList(device));
@@ -114,43 +384,275 @@ public class DeviceServiceTest {
         verify(deviceRepository, times(1)).findByBrand("BrandA");
     }
 
+    @Test
+    public void testSearchDevicesByBrandIgnoreCase() {
+        PageRequest sortedById = PageRequest.of(0, 10, Sort.by("id"));
+        when(deviceRepository.findByBrandNormalized("branda", sortedById))
+                .thenReturn(new SliceImpl<>(List.of(device), sortedById, false));
+
+        DevicePage page = deviceService.searchDevicesByBrand("BRANDA", true, false, PageRequest.of(0, 10));
+
+        assertThat(page.items()).containsExactly(device);
+        assertThat(page.hasNext()).isFalse();
+        verify(deviceRepository, times(1)).findByBrandNormalized("branda", sortedById);
+    }
+
+    @Test
+    public void testSearchDevicesByBrandPrefix() {
+        PageRequest byName = PageRequest.of(1, 5, Sort.by("name"));
+        when(deviceRepository.findByBrandStartingWith("Bra", byName))
+                .thenReturn(new SliceImpl<>(List.of(device), byName, true));
+
+        DevicePage page = deviceService.searchDevicesByBrand("Bra", false, true, byName);
+
+        assertThat(page.page()).isEqualTo(1);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void testSearchDevicesByBrandRejectsUnknownSort() {
+        assertThatThrownBy(() -> deviceService.searchDevicesByBrand("BrandA", false, false,
+                PageRequest.of(0, 10, Sort.by("brandNormalized"))))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+
+        verifyNoInteractions(deviceRepository);
+    }
+
     @Test
     public void testUpdateDevice() {
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                isNull(), any(LocalDateTime.class))).thenReturn(1);
+        device.setVersion(4L);
         when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
-        when(deviceRepository.save(any(Device.class))).thenReturn(device);
 
-        Device updatedDevice = deviceService.updateDevice(1L, deviceDto);
+        Device updatedDevice = deviceService.updateDevice(1L, deviceDto, null);
 
         assertThat(updatedDevice).isNotNull();
         assertThat(updatedDevice.getId()).isEqualTo(1L);
         assertThat(updatedDevice.getName()).isEqualTo("Device1");
         assertThat(updatedDevice.getBrand()).isEqualTo("BrandA");
 
+        verify(deviceRepository, times(1)).updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                isNull(), any(LocalDateTime.class));
         verify(deviceRepository, times(1)).findById(1L);
-        verify(deviceRepository, times(1)).save(any(Device.class));
+        verify(deviceRepository, never()).findStampById(1L);
+        verify(deviceRepository, never()).save(any(Device.class));
+        verify(changeFeed, times(1)).recordUpdated(1L);
+        verify(statistics, times(1)).recordUpdated(1L, 4L, "BrandA");
+        verify(searchIndex, times(1)).recordUpdated(1L, 4L, "Device1", "BrandA");
     }
 
     @Test
-    public void testDeleteDevice() {
+    public void testWritesDropLookupsInFlight() {
+        LookupCoalescer coalescer = spy(new LookupCoalescer(new SimpleMeterRegistry(), true));
+        ReflectionTestUtils.setField(deviceService, "coalescer", coalescer);
+        when(deviceRepository.deleteDeviceById(1L, null)).thenReturn(1);
+        when(deviceRepository.saveAndFlush(any(Device.class))).thenReturn(device);
+
+        deviceService.deleteDevice(1L, null);
+        deviceService.createDevice(new DeviceDto("Device2", "BrandB"));
+
+        InOrder inOrder = inOrder(deviceRepository, coalescer);
+        inOrder.verify(deviceRepository).deleteDeviceById(1L, null);
+        inOrder.verify(coalescer).forget("findById", 1L);
+        inOrder.verify(coalescer).forget("findStampById", 1L);
+        inOrder.verify(coalescer).forgetAll("findByBrand");
+        inOrder.verify(coalescer).forgetAll("findBrandStamp");
+        inOrder.verify(deviceRepository).saveAndFlush(any(Device.class));
+        inOrder.verify(coalescer).forget("findByBrand", "BrandB");
+        inOrder.verify(coalescer).forget("findBrandStamp", "BrandB");
+    }
+
+    @Test
+    public void testUpdateDeviceNotFound() {
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                isNull(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> deviceService.updateDevice(1L, deviceDto, null))
+                .isInstanceOf(DeviceNotFoundException.class);
+
+        verify(deviceRepository, never()).findById(1L);
+        verifyNoInteractions(changeFeed, statistics, searchIndex);
+    }
+
+    @Test
+    public void testUpdateDeviceVersionConflict() {
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                eq(3L), any(LocalDateTime.class))).thenReturn(0);
         when(deviceRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(deviceRepository).deleteById(1L);
 
-        deviceService.deleteDevice(1L);
+        assertThatThrownBy(() -> deviceService.updateDevice(1L, deviceDto, 3L))
+                .isInstanceOf(DeviceVersionConflictException.class);
+
+        verify(deviceRepository, never()).findById(1L);
+    }
+
+    @Test
+    public void testUpdateDeviceWithVersionNotFound() {
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                eq(3L), any(LocalDateTime.class))).thenReturn(0);
+        when(deviceRepository.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> deviceService.updateDevice(1L, deviceDto, 3L))
+                .isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    public void testPatchDevice() {
+        when(deviceRepository.patchNameAndBrand(eq(1L), eq("Patched"), isNull(), isNull(),
+                isNull(), any(LocalDateTime.class))).thenReturn(1);
+        device.setVersion(2L);
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+
+        Device patchedDevice = deviceService.patchDevice(1L, new DeviceDto("Patched", null), null);
 
-        verify(deviceRepository, times(1)).existsById(1L);
-        verify(deviceRepository, times(1)).deleteById(1L);
+        assertThat(patchedDevice).isEqualTo(device);
+        verify(deviceRepository, times(1)).patchNameAndBrand(eq(1L), eq("Patched"), isNull(), isNull(),
+                isNull(), any(LocalDateTime.class));
+        verify(searchIndex, times(1)).recordUpdated(1L, 2L, "Patched", null);
+    }
+
+    @Test
+    public void testApplyUpdateWithoutVersionReadsVersionBackOnce() {
+        when(deviceRepository.updateNameAndBrand(eq(1L), eq("Device1"), eq("BrandA"), eq("branda"),
+                isNull(), any(LocalDateTime.class))).thenReturn(1);
+        when(deviceRepository.findStampById(1L)).thenReturn(Optional.of(new DeviceStamp(7L, null)));
+
+        deviceService.applyUpdate(1L, deviceDto, false, null);
+
+        verify(deviceRepository, times(1)).findStampById(1L);
+        verify(deviceRepository, never()).findById(1L);
+        verify(searchIndex, times(1)).recordUpdated(1L, 7L, "Device1", "BrandA");
+    }
+
+    @Test
+    public void testApplyUpdateIssuesSingleStatement() {
+        when(deviceRepository.patchNameAndBrand(eq(1L), isNull(), eq("BrandB"), eq("brandb"),
+                eq(2L), any(LocalDateTime.class))).thenReturn(1);
+
+        deviceService.applyUpdate(1L, new DeviceDto(null, "BrandB"), true, 2L);
+
+        verify(deviceRepository, times(1)).patchNameAndBrand(eq(1L), isNull(), eq("BrandB"), eq("brandb"),
+                eq(2L), any(LocalDateTime.class));
+        verifyNoMoreInteractions(deviceRepository);
+        verify(statistics, times(1)).recordUpdated(1L, 3L, "BrandB");
+    }
+
+    @Test
+    public void testUpdateDevicesByIdsReportsNotFound() {
+        when(deviceRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+        when(deviceRepository.findExistingIds(List.of(3L))).thenReturn(List.of(3L));
+        when(deviceRepository.patchNameAndBrandByIds(eq(List.of(1L)), isNull(), eq("BrandB"), eq("brandb"),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(deviceRepository.patchNameAndBrandByIds(eq(List.of(3L)), isNull(), eq("BrandB"), eq("brandb"),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(deviceRepository.findVersionsByIds(List.of(1L))).thenReturn(List.of(new DeviceVersion(1L, 5L)));
+        when(deviceRepository.findVersionsByIds(List.of(3L))).thenReturn(List.of(new DeviceVersion(3L, 2L)));
+
+        BulkWriteResult result = deviceService.updateDevices(
+                new BulkUpdateRequest(List.of(1L, 2L, 1L, 3L), null, new DeviceDto(null, "BrandB")));
+
+        assertThat(result.affected()).isEqualTo(2);
+        assertThat(result.notFound()).containsExactly(2L);
+        verify(changeFeed, times(1)).recordUpdated(List.of(1L));
+        verify(statistics, times(1)).recordUpdated(List.of(new DeviceVersion(3L, 2L)), "BrandB");
+        verify(searchIndex, times(1)).recordUpdated(List.of(new DeviceVersion(3L, 2L)), null, "BrandB");
+    }
+
+    @Test
+    public void testDeleteDevicesByBrandWalksChunks() {
+        when(deviceRepository.findIdsByBrand("BrandA", 0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(deviceRepository.findIdsByBrand("BrandA", 2L, Limit.of(2))).thenReturn(List.of(5L));
+        when(deviceRepository.deleteDevicesByIds(List.of(1L, 2L))).thenReturn(2);
+        when(deviceRepository.deleteDevicesByIds(List.of(5L))).thenReturn(1);
+
+        BulkWriteResult result = deviceService.deleteDevices(new BulkDeleteRequest(null, "BrandA"));
+
+        assertThat(result.affected()).isEqualTo(3);
+        assertThat(result.notFound()).isEmpty();
+        verify(changeFeed, times(1)).recordDeleted(List.of(1L, 2L));
+        verify(changeFeed, times(1)).recordDeleted(List.of(5L));
+        verify(statistics, times(1)).recordDeleted(List.of(5L));
+    }
+
+    @Test
+    public void testBulkWriteRequiresExactlyOneSelection() {
+        assertThatThrownBy(() -> deviceService.deleteDevices(new BulkDeleteRequest(List.of(1L), "BrandA")))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.deleteDevices(new BulkDeleteRequest(null, null)))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> deviceService.updateDevices(
+                new BulkUpdateRequest(List.of(1L), null, new DeviceDto(null, null))))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    public void testDeleteDevice() {
+        when(deviceRepository.deleteDeviceById(1L, null)).thenReturn(1);
+
+        deviceService.deleteDevice(1L, null);
+
+        verify(deviceRepository, times(1)).deleteDeviceById(1L, null);
+        verifyNoMoreInteractions(deviceRepository);
+        verify(changeFeed, times(1)).recordDeleted(1L);
+        verify(statistics, times(1)).recordDeleted(1L);
+        verify(searchIndex, times(1)).recordDeleted(1L);
+    }
+
+    @Test
+    public void testDeleteQueuedDeviceAwaitsFlushBeforeTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        DeviceWriteBehindBuffer writeBehindBuffer = mock(DeviceWriteBehindBuffer.class);
+        ReflectionTestUtils.setField(deviceService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(deviceService, "writeBehindBuffer", writeBehindBuffer);
+        ReflectionTestUtils.setField(deviceService, "writeBehindAwaitTimeout", Duration.ofSeconds(1));
+        when(deviceRepository.deleteDeviceById(1L, null)).thenReturn(1);
+
+        deviceService.deleteDevice(1L, null);
+
+        InOrder order = inOrder(writeBehindBuffer, transactionManager, deviceRepository);
+        order.verify(writeBehindBuffer).awaitFlushed(1L, Duration.ofSeconds(1));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(deviceRepository).deleteDeviceById(1L, null);
+    }
+
+    @Test
+    public void testWriteToDeviceStillQueuedAfterTimeoutAsksToRetry() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        DeviceWriteBehindBuffer writeBehindBuffer = mock(DeviceWriteBehindBuffer.class);
+        ReflectionTestUtils.setField(deviceService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(deviceService, "writeBehindBuffer", writeBehindBuffer);
+        ReflectionTestUtils.setField(deviceService, "writeBehindAwaitTimeout", Duration.ofMillis(10));
+        doThrow(new WriteBehindQueueFullException("Timed out waiting for queued device 1"))
+                .when(writeBehindBuffer).awaitFlushed(1L, Duration.ofMillis(10));
+
+        assertThatThrownBy(() -> deviceService.updateDevice(1L, deviceDto, null))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        assertThatThrownBy(() -> deviceService.patchDevice(1L, deviceDto, null))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        assertThatThrownBy(() -> deviceService.deleteDevice(1L, null))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        verifyNoInteractions(transactionManager, deviceRepository);
+    }
+
+    @Test
+    public void testDeleteDeviceNotFound() {
+        when(deviceRepository.deleteDeviceById(1L, null)).thenReturn(0);
+
+        assertThatThrownBy(() -> deviceService.deleteDevice(1L, null))
+                .isInstanceOf(DeviceNotFoundException.class);
     }
 
     @Test
     public void testDeleteDeviceThrowsException() {
-        when(deviceRepository.existsById(1L)).thenReturn(true);
-        doThrow(new RuntimeException("Database error")).when(deviceRepository).deleteById(1L);
+        when(deviceRepository.deleteDeviceById(1L, null)).thenThrow(new RuntimeException("Database error"));
 
-        assertThatThrownBy(() -> deviceService.deleteDevice(1L))
+        assertThatThrownBy(() -> deviceService.deleteDevice(1L, null))
                 .isInstanceOf(DeviceServiceException.class)
                 .hasMessageContaining("Error deleting device");
 
-        verify(deviceRepository, times(1)).existsById(1L);
-        verify(deviceRepository, times(1)).deleteById(1L);
+        verify(deviceRepository, times(1)).deleteDeviceById(1L, null);
     }
 }
@@ -0,0 +1,70 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceDto;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.repository.DeviceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "device.write-behind.enabled=true",
+        "device.write-behind.flush-interval=200ms"
+})
+@DirtiesContext
+public class DeviceServiceWriteBehindTest {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private DeviceWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @AfterEach
+    public void tearDown() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    public void testCreatedDeviceIsReadableBeforeAndAfterFlush() {
+        Device created = deviceService.createDevice(new DeviceDto("Device1", "BrandA"));
+
+        assertThat(deviceService.findDeviceById(created.getId()).getName()).isEqualTo("Device1");
+
+        writeBehindBuffer.awaitFlushed(created.getId(), Duration.ofSeconds(5));
+        Device stored = deviceRepository.findById(created.getId()).orElseThrow();
+        assertThat(stored.getBrand()).isEqualTo("BrandA");
+        assertThat(stored.getBrandNormalized()).isEqualTo("branda");
+    }
+
+    @Test
+    public void testQueuedIdsDoNotCollideWithJpaIds() {
+        Device saved = deviceRepository.save(new Device(null, "Device1", "BrandA", LocalDateTime.now()));
+        Device created = deviceService.createDevice(new DeviceDto("Device2", "BrandA"));
+        writeBehindBuffer.awaitFlushed(created.getId(), Duration.ofSeconds(5));
+        Device savedAfter = deviceRepository.save(new Device(null, "Device3", "BrandA", LocalDateTime.now()));
+
+        assertThat(created.getId()).isNotIn(saved.getId(), savedAfter.getId());
+        assertThat(deviceRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void testUpdateWaitsForQueuedDevice() {
+        Device created = deviceService.createDevice(new DeviceDto("Device1", "BrandA"));
+
+        Device updated = deviceService.updateDevice(created.getId(), new DeviceDto("Device2", "BrandB"), null);
+
+        assertThat(updated.getName()).isEqualTo("Device2");
+        assertThat(deviceRepository.findById(created.getId()).orElseThrow().getBrand()).isEqualTo("BrandB");
+    }
+}
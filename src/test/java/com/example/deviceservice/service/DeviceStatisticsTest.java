@@ -0,0 +1,104 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.dto.DeviceStats;
+import com.example.deviceservice.dto.DeviceVersion;
+import com.example.deviceservice.dto.DeviceView;
+import com.example.deviceservice.exception.InvalidDeviceRequestException;
+import com.example.deviceservice.model.Device;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DeviceStatisticsTest {
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private final DeviceStatistics statistics = new DeviceStatistics();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(statistics, "bucketWidth", Duration.ofHours(1));
+        ReflectionTestUtils.setField(statistics, "maxPageSize", 100);
+        statistics.checkBucketWidth();
+        Stream.of(
+                new DeviceView(1L, "Device1", "BrandA", HOUR.plusMinutes(5)),
+                new DeviceView(2L, "Device2", "BrandA", HOUR.plusMinutes(59)),
+                new DeviceView(3L, "Device3", "BrandB", HOUR.plusHours(1)))
+                .forEach(statistics::load);
+    }
+
+    @Test
+    public void testLoadCountsBrandsAndBuckets() {
+        DeviceStats stats = statistics.getStats(10, null, null);
+
+        assertThat(stats.total()).isEqualTo(3);
+        assertThat(stats.brands()).containsExactly(Map.entry("BrandA", 2L), Map.entry("BrandB", 1L));
+        assertThat(stats.bucketSeconds()).isEqualTo(3600);
+        assertThat(stats.created()).containsExactly(
+                new DeviceStats.CreationBucket(HOUR, 2), new DeviceStats.CreationBucket(HOUR.plusHours(1), 1));
+    }
+
+    @Test
+    public void testTopBrandsAreRankedByCountThenName() {
+        statistics.recordCreated(List.of(new Device(4L, "Device4", "BrandC", HOUR),
+                new Device(5L, "Device5", "BrandC", HOUR)));
+
+        assertThat(statistics.getStats(2, null, null).topBrands()).containsExactly(
+                new DeviceStats.BrandCount("BrandA", 2), new DeviceStats.BrandCount("BrandC", 2));
+    }
+
+    @Test
+    public void testUpdateMovesDeviceToNewBrand() {
+        statistics.recordUpdated(1L, 1, "BrandB");
+        statistics.recordUpdated(3L, 1, null);
+
+        assertThat(statistics.getStats(10, null, null).brands())
+                .containsExactly(Map.entry("BrandA", 1L), Map.entry("BrandB", 2L));
+    }
+
+    @Test
+    public void testOlderUpdateDoesNotUndoNewerOne() {
+        statistics.recordUpdated(1L, 3, "BrandC");
+        statistics.recordUpdated(List.of(new DeviceVersion(1L, 2L), new DeviceVersion(2L, 2L)), "BrandB");
+
+        assertThat(statistics.getStats(10, null, null).brands())
+                .containsExactly(Map.entry("BrandB", 2L), Map.entry("BrandC", 1L));
+    }
+
+    @Test
+    public void testDeleteRemovesEmptyBrandsAndBuckets() {
+        statistics.recordDeleted(3L);
+        statistics.recordDeleted(3L);
+
+        DeviceStats stats = statistics.getStats(10, null, null);
+
+        assertThat(stats.total()).isEqualTo(2);
+        assertThat(stats.brands()).containsOnlyKeys("BrandA");
+        assertThat(stats.created()).containsExactly(new DeviceStats.CreationBucket(HOUR, 2));
+    }
+
+    @Test
+    public void testBucketsAreLimitedToTimeRange() {
+        assertThat(statistics.getStats(10, HOUR.plusMinutes(30), null).created())
+                .containsExactly(new DeviceStats.CreationBucket(HOUR, 2),
+                        new DeviceStats.CreationBucket(HOUR.plusHours(1), 1));
+        assertThat(statistics.getStats(10, null, HOUR.plusHours(1)).created())
+                .containsExactly(new DeviceStats.CreationBucket(HOUR, 2));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatThrownBy(() -> statistics.getStats(0, null, null))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+        assertThatThrownBy(() -> statistics.getStats(10, HOUR, HOUR))
+                .isInstanceOf(InvalidDeviceRequestException.class);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.config.CacheConfig;
+import com.example.deviceservice.exception.WriteBehindQueueFullException;
+import com.example.deviceservice.model.Device;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DeviceWriteBehindBufferTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    private DeviceWriteBehindBuffer buffer;
+
+    private DeviceWriteBehindBuffer start(int capacity, int batchSize, Duration flushInterval) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L, 150L);
+        buffer = new DeviceWriteBehindBuffer(jdbcTemplate, new TransactionTemplate(transactionManager),
+                cacheManager, mock(DeviceChangeFeed.class), mock(DeviceStatistics.class),
+                mock(DeviceSearchIndex.class), meterRegistry, capacity, batchSize, flushInterval, Duration.ofMillis(50));
+        buffer.start();
+        return buffer;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (buffer != null && buffer.isRunning()) {
+            buffer.stop();
+        }
+    }
+
+    private static Device newDevice(String name) {
+        return new Device(null, name, "BrandA", LocalDateTime.now());
+    }
+
+    @Test
+    public void testSubmitAssignsIdsFromSequenceBlocks() {
+        start(100, 10, Duration.ofSeconds(5));
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            ids.add(buffer.submit(newDevice("Device" + i)).getId());
+        }
+
+        assertThat(ids.get(0)).isEqualTo(51L);
+        assertThat(ids.get(49)).isEqualTo(100L);
+        assertThat(ids.get(50)).isEqualTo(101L);
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    public void testQueuedDeviceIsPendingUntilFlushed() {
+        start(100, 10, Duration.ofMillis(20));
+
+        Device device = buffer.submit(newDevice("Device1"));
+        assertThat(buffer.findPending(device.getId())).isSameAs(device);
+
+        buffer.awaitFlushed(device.getId(), Duration.ofSeconds(5));
+
+        assertThat(buffer.findPending(device.getId())).isNull();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void testSubmitRejectsWhenQueueIsFull() throws InterruptedException {
+        // The flusher blocks in its transaction with the first device, the second fills the queue
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        });
+        start(1, 1, Duration.ofSeconds(5));
+        buffer.submit(newDevice("Device1"));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        Device queued = buffer.submit(newDevice("Device2"));
+
+        assertThatThrownBy(() -> buffer.submit(newDevice("Device3")))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        assertThat(buffer.findPending(queued.getId())).isNotNull();
+        release.countDown();
+    }
+
+    @Test
+    public void testAwaitFlushedTimeoutAsksToRetry() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        start(10, 1, Duration.ofMillis(10));
+        Device device = buffer.submit(newDevice("Device1"));
+
+        assertThatThrownBy(() -> buffer.awaitFlushed(device.getId(), Duration.ofMillis(20)))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        release.countDown();
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedUntilWritten() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"))
+                .thenReturn(new int[][] {{1}});
+        start(10, 10, Duration.ofMillis(10));
+        Device device = buffer.submit(newDevice("Device1"));
+        cacheManager.getCache(CacheConfig.DEVICES).put(device.getId(), device);
+
+        buffer.awaitFlushed(device.getId(), Duration.ofSeconds(5));
+
+        assertThat(buffer.findPending(device.getId())).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.DEVICES).get(device.getId())).isNotNull();
+        assertThat(meterRegistry.counter("device.write-behind.failed-flushes").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("device.write-behind.flushed").count()).isEqualTo(1);
+        verify(jdbcTemplate, times(3))
+                .batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void testStopDrainsQueueAndRejectsNewDevices() {
+        start(100, 10, Duration.ofSeconds(1));
+        Device device1 = buffer.submit(newDevice("Device1"));
+        Device device2 = buffer.submit(newDevice("Device2"));
+
+        buffer.stop();
+
+        assertThat(buffer.findPending(device1.getId())).isNull();
+        assertThat(buffer.findPending(device2.getId())).isNull();
+        assertThatThrownBy(() -> buffer.submit(newDevice("Device3")))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+    }
+
+    @Test
+    public void testDeviceAcceptedWhileStoppingIsWritten() throws Exception {
+        // The submit passes its running check, then allocates its id until stop() has returned or times out
+        CountDownLatch submitting = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        start(10, 10, Duration.ofMillis(10));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            submitting.countDown();
+            stopped.await(500, TimeUnit.MILLISECONDS);
+            return 100L;
+        });
+        Thread stopper = new Thread(() -> {
+            try {
+                submitting.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.stop();
+            stopped.countDown();
+        });
+        stopper.start();
+
+        Device device = buffer.submit(newDevice("Device1"));
+        stopper.join(5000);
+
+        assertThat(stopped.getCount()).isZero();
+        assertThat(buffer.findPending(device.getId())).isNull();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
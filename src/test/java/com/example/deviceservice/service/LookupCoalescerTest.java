@@ -0,0 +1,185 @@
+package com.example.deviceservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LookupCoalescerTest {
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LookupCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new LookupCoalescer(meterRegistry, true);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalLookupsShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.coalesce("findById", 1L, () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "device-1";
+            })));
+        }
+        awaitCalls(CALLERS);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("device-1");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("follower")).isEqualTo(CALLERS - 1);
+        assertThat(meterRegistry.get("device.coalescing.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    public void testDifferentKeysAreNotShared() {
+        assertThat(coalescer.coalesce("findById", 1L, () -> "device-1")).isEqualTo("device-1");
+        assertThat(coalescer.coalesce("findById", 2L, () -> "device-2")).isEqualTo("device-2");
+        assertThat(coalescer.coalesce("findStampById", 1L, () -> "stamp-1")).isEqualTo("stamp-1");
+
+        assertThat(count("follower")).isZero();
+    }
+
+    @Test
+    public void testCompletedLookupIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.coalesce("findById", 1L, calls::incrementAndGet);
+        coalescer.coalesce("findById", 1L, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+        assertThat(count("leader")).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRetained() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.coalesce("findById", 1L, () -> {
+                await(release);
+                throw new IllegalStateException("database unavailable");
+            })));
+        }
+        awaitCalls(CALLERS);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database unavailable");
+        }
+        assertThat(coalescer.coalesce("findById", 1L, () -> "device-1")).isEqualTo("device-1");
+    }
+
+    @Test
+    public void testForgottenLookupIsNotJoined() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = executor.submit(() -> coalescer.coalesce("findById", 1L, () -> {
+            await(release);
+            return "before-write";
+        }));
+        awaitCalls(1);
+
+        coalescer.forget("findById", 1L);
+
+        assertThat(coalescer.coalesce("findById", 1L, () -> "after-write")).isEqualTo("after-write");
+        release.countDown();
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+        assertThat(count("leader")).isEqualTo(2);
+        assertThat(count("follower")).isZero();
+        assertThat(meterRegistry.get("device.coalescing.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    public void testForgetAllDropsEveryKeyOfTheLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> brands = new ArrayList<>();
+        for (String brand : List.of("BrandA", "BrandB")) {
+            brands.add(executor.submit(() -> coalescer.coalesce("findByBrand", brand, () -> {
+                await(release);
+                return brand;
+            })));
+        }
+        Future<String> device = executor.submit(() -> coalescer.coalesce("findById", 1L, () -> {
+            await(release);
+            return "device-1";
+        }));
+        awaitCalls(3);
+
+        coalescer.forgetAll("findByBrand");
+
+        assertThat(meterRegistry.get("device.coalescing.in-flight").gauge().value()).isEqualTo(1);
+        release.countDown();
+        assertThat(device.get(5, TimeUnit.SECONDS)).isEqualTo("device-1");
+        for (Future<String> brand : brands) {
+            assertThat(brand.get(5, TimeUnit.SECONDS)).startsWith("Brand");
+        }
+    }
+
+    @Test
+    public void testDisabledCoalescerRunsEveryLookup() {
+        LookupCoalescer disabled = new LookupCoalescer(meterRegistry, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        disabled.coalesce("findById", 1L, calls::incrementAndGet);
+        disabled.coalesce("findById", 1L, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.find("device.coalescing.calls").counters()).isEmpty();
+    }
+
+    private double count(String role) {
+        return meterRegistry.find("device.coalescing.calls").tag("role", role).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    /**
+     * Waits until every caller has either started the lookup or joined it.
+     */
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("leader") + count("follower") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count("leader") + count("follower")).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
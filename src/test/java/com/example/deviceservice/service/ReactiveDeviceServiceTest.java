@@ -0,0 +1,64 @@
+package com.example.deviceservice.service;
+
+import com.example.deviceservice.exception.DeviceNotFoundException;
+import com.example.deviceservice.model.Device;
+import com.example.deviceservice.repository.ReactiveDeviceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveDeviceServiceTest {
+
+    @Mock
+    private ReactiveDeviceRepository reactiveDeviceRepository;
+
+    @Mock
+    private DeviceWriteBehindBuffer writeBehindBuffer;
+
+    @InjectMocks
+    private ReactiveDeviceService reactiveDeviceService;
+
+    private final Device device = new Device(1L, "Device1", "BrandA", LocalDateTime.now());
+
+    @Test
+    public void testFindDeviceById() {
+        when(reactiveDeviceRepository.findById(1L)).thenReturn(Mono.just(device));
+
+        assertThat(reactiveDeviceService.findDeviceById(1L).block()).isEqualTo(device);
+    }
+
+    @Test
+    public void testFindDeviceByIdNotFound() {
+        when(reactiveDeviceRepository.findById(1L)).thenReturn(Mono.empty());
+
+        assertThatThrownBy(() -> reactiveDeviceService.findDeviceById(1L).block())
+                .isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    public void testFindDeviceByIdFindsQueuedDevice() {
+        when(writeBehindBuffer.findPending(1L)).thenReturn(device);
+
+        assertThat(reactiveDeviceService.findDeviceById(1L).block()).isEqualTo(device);
+        verifyNoInteractions(reactiveDeviceRepository);
+    }
+
+    @Test
+    public void testFindDeviceByIdWithoutWriteBehind() {
+        ReflectionTestUtils.setField(reactiveDeviceService, "writeBehindBuffer", null);
+        when(reactiveDeviceRepository.findById(1L)).thenReturn(Mono.just(device));
+
+        assertThat(reactiveDeviceService.findDeviceById(1L).block()).isEqualTo(device);
+    }
+}